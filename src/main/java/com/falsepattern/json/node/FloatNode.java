@@ -1,8 +1,10 @@
 package com.falsepattern.json.node;
 
 import com.falsepattern.json.parsing.ASTNode;
+import com.falsepattern.json.parsing.NumberUtil;
 import com.falsepattern.json.parsing.TerminalNode;
 import lombok.NonNull;
+import lombok.val;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Unmodifiable;
@@ -11,23 +13,112 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Objects;
 
+/**
+ * Numbers created from a {@code double} are stored as one, and literals of up to 18 digits as a {@code long} with a
+ * decimal scale. Everything else is backed by a {@link BigDecimal}. All forms behave exactly like the
+ * {@link BigDecimal} they stand for, which is only created on demand.
+ * <p>
+ * Nodes created from a {@code double} print the shortest decimal that reads back as the same {@code double}, see
+ * {@link NumberUtil#toString(double)}. All others print their exact value in plain notation.
+ */
 @Unmodifiable
 public class FloatNode extends JsonNode {
-    private final BigDecimal value;
+    private static final long[] POWERS_OF_TEN = new long[19];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private enum Form {
+        Exact,
+        Decimal,
+        Binary
+    }
+
+    private final Form form;
+    //Set from the start for the exact form, created on demand for the others
+    private BigDecimal value;
+    //Decimal form, the value is unscaled * 10^-scale
+    private final long unscaled;
+    private final int scale;
+    //Binary form
+    private final double binary;
     private BigInteger integerForm;
+
     private FloatNode(BigDecimal value) {
+        this.form = Form.Exact;
         this.value = value;
+        this.unscaled = 0;
+        this.scale = 0;
+        this.binary = 0;
+    }
+
+    private FloatNode(long unscaled, int scale) {
+        this.form = Form.Decimal;
+        this.unscaled = unscaled;
+        this.scale = scale;
+        this.binary = 0;
+    }
+
+    private FloatNode(double binary) {
+        this.form = Form.Binary;
+        this.unscaled = 0;
+        this.scale = 0;
+        this.binary = binary;
     }
 
     @Override
     public boolean equals(@NotNull JsonNode other) {
-        return other.isNumber() && other.bigDecimalValue().equals(value);
+        if (other instanceof FloatNode) {
+            val that = (FloatNode) other;
+            //Same as comparing the BigDecimals, which are equal only if both the unscaled value and the scale are
+            if (form == Form.Decimal && that.form == Form.Decimal) {
+                return unscaled == that.unscaled && scale == that.scale;
+            }
+            //BigDecimal.valueOf goes through Double.toString, which is unique for every double but the zeros
+            if (form == Form.Binary && that.form == Form.Binary) {
+                return binary == that.binary;
+            }
+        }
+        return other.isNumber() && other.bigDecimalValue().equals(bigDecimalValue());
     }
 
     @Contract(pure = true)
     @Override
     public @NotNull String toString() {
-        return value.toPlainString();
+        if (form == Form.Binary) {
+            return NumberUtil.toString(binary);
+        }
+        if (form == Form.Exact || (unscaled == 0 && scale < 0)) {
+            return bigDecimalValue().toPlainString();
+        }
+        if (scale <= 0) {
+            val digits = Long.toString(unscaled);
+            if (scale == 0) return digits;
+            val result = new StringBuilder(digits.length() - scale).append(digits);
+            for (int i = 0; i < -scale; i++) {
+                result.append('0');
+            }
+            return result.toString();
+        }
+        val negative = unscaled < 0;
+        //Long.MIN_VALUE never fits into 18 digits, so the negation can't overflow
+        val digits = Long.toString(negative ? -unscaled : unscaled);
+        val result = new StringBuilder(scale + 3);
+        if (negative) result.append('-');
+        val integerDigits = digits.length() - scale;
+        if (integerDigits > 0) {
+            result.append(digits, 0, integerDigits).append('.').append(digits, integerDigits, digits.length());
+        } else {
+            result.append("0.");
+            for (int i = integerDigits; i < 0; i++) {
+                result.append('0');
+            }
+            result.append(digits);
+        }
+        return result.toString();
     }
 
     @Override
@@ -41,8 +132,20 @@ public class FloatNode extends JsonNode {
         return true;
     }
 
+    @Contract(pure = true)
+    @Override
+    public boolean isNumber() {
+        return true;
+    }
+
     @Override
     public boolean isInt() {
+        if (form == Form.Decimal && scale < POWERS_OF_TEN.length) {
+            return scale <= 0 || unscaled % POWERS_OF_TEN[scale] == 0;
+        }
+        if (form == Form.Binary) {
+            return binary % 1 == 0;
+        }
         try {
             //noinspection ResultOfMethodCallIgnored
             bigIntValue();
@@ -55,25 +158,52 @@ public class FloatNode extends JsonNode {
     @Override
     public @NotNull BigInteger bigIntValue() {
         //Lazy initialization
-        return integerForm == null ? integerForm = value.toBigIntegerExact() : integerForm;
+        return integerForm == null ? integerForm = bigDecimalValue().toBigIntegerExact() : integerForm;
     }
 
     @Override
     public @NotNull BigDecimal bigDecimalValue() {
+        //Lazy initialization
+        if (value == null) {
+            value = form == Form.Binary ? BigDecimal.valueOf(binary) : BigDecimal.valueOf(unscaled, scale);
+        }
         return value;
     }
 
+    @Override
+    public double doubleValue() {
+        switch (form) {
+            case Binary:
+                return binary;
+            case Decimal:
+                return NumberUtil.toDouble(unscaled, -scale);
+            default:
+                return value.doubleValue();
+        }
+    }
+
+    /**
+     * @throws NumberFormatException If the value is infinite or NaN.
+     */
     @Contract(pure = true)
     public static @NotNull FloatNode of(float value) {
-        return new FloatNode(BigDecimal.valueOf(value));
+        return of((double) value);
     }
 
+    /**
+     * @throws NumberFormatException If the value is infinite or NaN.
+     */
     public static @NotNull FloatNode of(double value) {
-        return new FloatNode(BigDecimal.valueOf(value));
+        if (Double.isNaN(value) || Double.isInfinite(value)) throw new NumberFormatException("Infinite or NaN");
+        return new FloatNode(value);
     }
 
+    /**
+     * @throws NumberFormatException If the text is not a valid number, see {@link BigDecimal#BigDecimal(String)}.
+     */
     public static @NotNull FloatNode of(String value) {
-        return new FloatNode(new BigDecimal(value));
+        val compact = parseDecimal(value);
+        return compact != null ? compact : new FloatNode(new BigDecimal(value));
     }
 
     public static @NotNull FloatNode of(BigDecimal value) {
@@ -83,6 +213,54 @@ public class FloatNode extends JsonNode {
     @Contract(pure = true)
     public static @NotNull FloatNode translate(@NotNull @NonNull ASTNode node) {
         if (!Objects.equals(node.type, "float")) throw new InvalidSemanticsException("FloatNode", node);
-        return new FloatNode(new BigDecimal(((TerminalNode) node).text));
+        return of(((TerminalNode) node).text);
+    }
+
+    /**
+     * Parses json number literals with up to 18 digits and an exponent of up to 9 digits into the decimal form.
+     * @return The parsed node, or null if the text has any other shape.
+     */
+    private static FloatNode parseDecimal(String text) {
+        val length = text.length();
+        int i = 0;
+        val negative = length > 0 && text.charAt(0) == '-';
+        if (negative) i++;
+        long unscaled = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        val integerStart = i;
+        char c;
+        while (i < length && (c = text.charAt(i)) >= '0' && c <= '9') {
+            unscaled = unscaled * 10 + (c - '0');
+            digits++;
+            i++;
+        }
+        if (i == integerStart) return null;
+        if (i < length && text.charAt(i) == '.') {
+            val fractionStart = ++i;
+            while (i < length && (c = text.charAt(i)) >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                i++;
+            }
+            fractionDigits = i - fractionStart;
+            if (fractionDigits == 0) return null;
+        }
+        if (digits > 18) return null;
+        int exponent = 0;
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            val negativeExponent = i < length && text.charAt(i) == '-';
+            if (i < length && (negativeExponent || text.charAt(i) == '+')) i++;
+            val exponentStart = i;
+            while (i < length && (c = text.charAt(i)) >= '0' && c <= '9') {
+                exponent = exponent * 10 + (c - '0');
+                i++;
+            }
+            if (i == exponentStart || i - exponentStart > 9) return null;
+            if (negativeExponent) exponent = -exponent;
+        }
+        if (i != length) return null;
+        return new FloatNode(negative ? -unscaled : unscaled, fractionDigits - exponent);
     }
 }
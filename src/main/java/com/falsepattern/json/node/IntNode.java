@@ -3,6 +3,7 @@ package com.falsepattern.json.node;
 import com.falsepattern.json.parsing.ASTNode;
 import com.falsepattern.json.parsing.TerminalNode;
 import lombok.NonNull;
+import lombok.val;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Unmodifiable;
@@ -11,9 +12,14 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Objects;
 
+/**
+ * Integers that fit into a {@code long} are stored as one, only larger values are backed by a {@link BigInteger}.
+ */
 @Unmodifiable
 public class IntNode extends JsonNode {
-    private final BigInteger value;
+    private final long value;
+    //Only set if the value does not fit into a long
+    private final BigInteger big;
     private BigDecimal decimalForm;
     private static final int LOW_VALUES = 256;
     private static final int LOW_VALUES_MIN = -LOW_VALUES;
@@ -22,23 +28,28 @@ public class IntNode extends JsonNode {
     private static final IntNode[] LOW_VALUES_NEG = new IntNode[LOW_VALUES];
     static {
         for (int i = 0; i < LOW_VALUES; i++) {
-            LOW_VALUES_POS[i] = new IntNode(BigInteger.valueOf(i));
-            LOW_VALUES_NEG[i] = new IntNode(BigInteger.valueOf(-i - 1));
+            LOW_VALUES_POS[i] = new IntNode(i, null);
+            LOW_VALUES_NEG[i] = new IntNode(-i - 1, null);
         }
     }
-    private IntNode(BigInteger value) {
+    private IntNode(long value, BigInteger big) {
         this.value = value;
+        this.big = big;
     }
 
     @Override
     public boolean equals(@NotNull JsonNode other) {
-        return other.isNumber() && other.bigIntValue().equals(value);
+        if (other instanceof IntNode) {
+            val that = (IntNode) other;
+            return big == null ? that.big == null && that.value == value : big.equals(that.big);
+        }
+        return other.isNumber() && other.bigIntValue().equals(bigIntValue());
     }
 
     @Contract(pure = true)
     @Override
     public @NotNull String toString() {
-        return value.toString();
+        return big == null ? Long.toString(value) : big.toString();
     }
 
     @Override
@@ -54,21 +65,51 @@ public class IntNode extends JsonNode {
 
     @Override
     public @NotNull BigInteger bigIntValue() {
-        return value;
+        return big == null ? BigInteger.valueOf(value) : big;
     }
 
     @Override
     public @NotNull BigDecimal bigDecimalValue() {
         //Lazy initialization
-        return decimalForm == null ? decimalForm = new BigDecimal(value) : decimalForm;
+        if (decimalForm == null) {
+            decimalForm = big == null ? BigDecimal.valueOf(value) : new BigDecimal(big);
+        }
+        return decimalForm;
+    }
+
+    @Override
+    public int intValue() {
+        return big == null ? (int) value : big.intValue();
+    }
+
+    @Override
+    public int intValueExact() {
+        return big == null ? Math.toIntExact(value) : big.intValueExact();
+    }
+
+    @Override
+    public long longValue() {
+        return big == null ? value : big.longValue();
+    }
+
+    @Override
+    public long longValueExact() {
+        return big == null ? value : big.longValueExact();
+    }
+
+    @Override
+    public float floatValue() {
+        return big == null ? (float) value : big.floatValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return big == null ? (double) value : big.doubleValue();
     }
 
     @Contract(pure = true)
     public static @NotNull IntNode of(int value) {
-        if (value >= LOW_VALUES_MIN && value <= LOW_VALUES_MAX) {
-            return value >= 0 ? LOW_VALUES_POS[value] : LOW_VALUES_NEG[-value - 1];
-        }
-        return new IntNode(BigInteger.valueOf(value));
+        return of((long) value);
     }
 
     @Contract(pure = true)
@@ -76,22 +117,34 @@ public class IntNode extends JsonNode {
         if (value >= LOW_VALUES_MIN && value <= LOW_VALUES_MAX) {
             return value >= 0 ? LOW_VALUES_POS[(int) value] : LOW_VALUES_NEG[(int) (-value - 1)];
         }
-        return new IntNode(BigInteger.valueOf(value));
+        return new IntNode(value, null);
     }
 
+    /**
+     * @throws NumberFormatException If the text is not a valid integer, see {@link BigInteger#BigInteger(String)}.
+     */
     @Contract(pure = true)
     public static @NotNull IntNode of(String value) {
-        return new IntNode(new BigInteger(value));
+        //Up to 18 digits always fit, without paying for the exception of a failed Long.parseLong
+        val length = value.length();
+        if (length > 0 && length <= 18 + (value.charAt(0) == '-' ? 1 : 0)) {
+            try {
+                return of(Long.parseLong(value));
+            } catch (NumberFormatException ignored) {
+                //Let BigInteger decide what the text means
+            }
+        }
+        return of(new BigInteger(value));
     }
 
     @Contract(pure = true)
     public static @NotNull IntNode of(BigInteger value) {
-        return new IntNode(value);
+        return value.bitLength() < 64 ? of(value.longValue()) : new IntNode(0, value);
     }
 
     @Contract(pure = true)
     public static @NotNull IntNode translate(@NotNull @NonNull ASTNode node) {
         if (!Objects.equals(node.type, "int")) throw new InvalidSemanticsException("IntNode", node);
-        return new IntNode(new BigInteger(((TerminalNode) node).text));
+        return of(((TerminalNode) node).text);
     }
 }
@@ -5,19 +5,42 @@ import com.falsepattern.json.node.interfaces.INode;
 import com.falsepattern.json.node.interfaces.IObjectNode;
 import com.falsepattern.json.node.interfaces.ISizedNode;
 import com.falsepattern.json.parsing.ASTNode;
+import com.falsepattern.json.parsing.IncrementalParser;
+import com.falsepattern.json.parsing.IndexedParser;
+import com.falsepattern.json.parsing.InvalidSyntaxException;
 import com.falsepattern.json.parsing.Parser;
+import com.falsepattern.json.parsing.ParserOptions;
+import com.falsepattern.json.parsing.PushParser;
+import com.falsepattern.json.parsing.token.Tokenizer;
 import lombok.NonNull;
+import lombok.val;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.UnmodifiableView;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public abstract class JsonNode implements INode, ISizedNode, IObjectNode, IListNode {
 
@@ -44,7 +67,55 @@ public abstract class JsonNode implements INode, ISizedNode, IObjectNode, IListN
     @Contract(pure = true)
     @Override
     public @NotNull String prettyPrint(int indentDepth) {
-        return toString();
+        return JsonWriter.prettyPrint(this, indentDepth);
+    }
+
+    @Override
+    public void writeTo(@NotNull @NonNull Appendable out) throws IOException {
+        JsonWriter.of(out).value(this);
+    }
+
+    /**
+     * See {@link #writeTo(Appendable)}. Writers are not buffered here, so unbuffered ones should be wrapped in a
+     * {@link java.io.BufferedWriter} first.
+     */
+    public void writeTo(@NotNull @NonNull Writer out) throws IOException {
+        JsonWriter.of(out).value(this);
+    }
+
+    /**
+     * Writes the compact text of this node as UTF-8 bytes, without building it as a string first. The bytes are
+     * written in chunks of a few kilobytes, so the stream does not need to be buffered. The stream is neither flushed
+     * nor closed.
+     */
+    public void writeUtf8(@NotNull @NonNull OutputStream out) throws IOException {
+        Utf8JsonWriter.write(this, out, -1);
+    }
+
+    /**
+     * See {@link #writeUtf8(OutputStream)}. Blocks until every byte was written, so non-blocking channels are spun on.
+     */
+    public void writeUtf8(@NotNull @NonNull WritableByteChannel channel) throws IOException {
+        Utf8JsonWriter.write(this, channel, -1);
+    }
+
+    @Override
+    public void prettyPrintTo(@NotNull @NonNull Appendable out, int indentDepth) throws IOException {
+        JsonWriter.of(out).pretty(indentDepth).value(this);
+    }
+
+    /**
+     * The pretty printed counterpart of {@link #writeUtf8(OutputStream)}, see {@link #prettyPrint(int)}.
+     */
+    public void prettyPrintUtf8(@NotNull @NonNull OutputStream out, int indentDepth) throws IOException {
+        Utf8JsonWriter.write(this, out, Math.max(0, indentDepth));
+    }
+
+    /**
+     * The pretty printed counterpart of {@link #writeUtf8(WritableByteChannel)}, see {@link #prettyPrint(int)}.
+     */
+    public void prettyPrintUtf8(@NotNull @NonNull WritableByteChannel channel, int indentDepth) throws IOException {
+        Utf8JsonWriter.write(this, channel, Math.max(0, indentDepth));
     }
 
     @Contract(pure = true)
@@ -226,17 +297,254 @@ public abstract class JsonNode implements INode, ISizedNode, IObjectNode, IListN
         }
     }
 
+    /**
+     * Parses the next json value from the tokenizer, within the limits the tokenizer was set up with, or the
+     * {@link ParserOptions#DEFAULT default limits} if it has none. See {@link ParserOptions#of(Tokenizer)}.
+     */
+    public static @NotNull JsonNode parse(@NotNull @NonNull Tokenizer tokenizer) {
+        return parse(tokenizer, ParserOptions.of(tokenizer));
+    }
+
+    /**
+     * Parses the next json value from the tokenizer, failing with an {@link InvalidSyntaxException} as soon as the
+     * input goes past one of the limits.
+     */
+    public static @NotNull JsonNode parse(@NotNull @NonNull Tokenizer tokenizer, @NotNull @NonNull ParserOptions options) {
+        val builder = new TreeBuilder();
+        new PushParser(tokenizer, options).parse(builder);
+        return builder.result();
+    }
+
+    /**
+     * See {@link #parse(Tokenizer, ParserOptions)}. Short string values are taken from the cache.
+     */
+    public static @NotNull JsonNode parse(@NotNull @NonNull Tokenizer tokenizer, @NotNull @NonNull ParserOptions options, @NotNull @NonNull StringNodeCache cache) {
+        val builder = new TreeBuilder(null, cache);
+        new PushParser(tokenizer, options).parse(builder);
+        return builder.result();
+    }
+
+    /**
+     * Parses the text within the {@link ParserOptions#DEFAULT default limits}. Earlier versions had no limits at all, so
+     * documents nested deeper than 1000 levels, or holding numbers longer than 1000 chars, are now rejected with an
+     * {@link InvalidSyntaxException}. Pass {@link ParserOptions#UNLIMITED} to {@link #parse(String, ParserOptions)} to
+     * parse those.
+     */
     public static @NotNull JsonNode parse(@NotNull @NonNull String text) {
-        return translate(new Parser(text).value());
+        return parse(text, ParserOptions.DEFAULT);
+    }
+
+    /**
+     * See {@link #parse(Tokenizer, ParserOptions)}.
+     */
+    public static @NotNull JsonNode parse(@NotNull @NonNull String text, @NotNull @NonNull ParserOptions options) {
+        return parse(new Tokenizer(text), options);
+    }
+
+    /**
+     * Parses a single json value from the reader. The input is consumed through a fixed size window, so the whole
+     * document never has to be held in memory. The reader is not closed.
+     * <p>
+     * Parses within the {@link ParserOptions#DEFAULT default limits}, see {@link #parse(String)}.
+     * @throws IOException If reading from the reader fails.
+     */
+    public static @NotNull JsonNode parse(@NotNull @NonNull Reader reader) throws IOException {
+        return parse(reader, ParserOptions.DEFAULT);
+    }
+
+    /**
+     * See {@link #parse(Reader)} and {@link #parse(Tokenizer, ParserOptions)}.
+     * @throws IOException If reading from the reader fails.
+     */
+    public static @NotNull JsonNode parse(@NotNull @NonNull Reader reader, @NotNull @NonNull ParserOptions options) throws IOException {
+        try {
+            return parse(new Tokenizer(reader), options);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Parses a single json value from the UTF-8 encoded stream. See {@link #parse(Reader)}.
+     * @throws IOException If reading from the stream fails, or if it contains malformed UTF-8.
+     */
+    public static @NotNull JsonNode parse(@NotNull @NonNull InputStream stream) throws IOException {
+        return parse(new InputStreamReader(stream, StandardCharsets.UTF_8.newDecoder()));
+    }
+
+    /**
+     * Parses a single json value from UTF-8 encoded bytes, without decoding them into a {@link String} first.
+     * @throws IllegalArgumentException If the bytes are not valid UTF-8.
+     */
+    public static @NotNull JsonNode parse(byte @NotNull @NonNull [] bytes) {
+        return parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * See {@link #parse(byte[])}.
+     * @param offset The index of the first byte of the json text.
+     * @param length The number of bytes the json text spans.
+     */
+    public static @NotNull JsonNode parse(byte @NotNull @NonNull [] bytes, int offset, int length) {
+        return parse(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Parses a single json value from UTF-8 encoded bytes with the two stage {@link IndexedParser}, which first indexes
+     * the structure of the whole input 8 bytes at a time. Faster than {@link #parse(byte[])} for large documents.
+     * @throws IllegalArgumentException If a string is not valid UTF-8.
+     */
+    public static @NotNull JsonNode parseIndexed(byte @NotNull @NonNull [] bytes) {
+        return parseIndexed(bytes, 0, bytes.length);
+    }
+
+    /**
+     * See {@link #parseIndexed(byte[])}.
+     */
+    public static @NotNull JsonNode parseIndexed(byte @NotNull @NonNull [] bytes, int offset, int length) {
+        return parseIndexed(bytes, offset, length, ParserOptions.DEFAULT);
+    }
+
+    /**
+     * See {@link #parseIndexed(byte[])}. The length limits of the options count bytes instead of chars.
+     */
+    public static @NotNull JsonNode parseIndexed(byte @NotNull @NonNull [] bytes, int offset, int length, @NotNull @NonNull ParserOptions options) {
+        val builder = new TreeBuilder();
+        new IndexedParser(bytes, offset, length, options).parse(builder);
+        return builder.result();
+    }
+
+    /**
+     * See {@link #parseIndexed(byte[], int, int, ParserOptions)}. Short string values are taken from the cache.
+     */
+    public static @NotNull JsonNode parseIndexed(byte @NotNull @NonNull [] bytes, int offset, int length, @NotNull @NonNull ParserOptions options, @NotNull @NonNull StringNodeCache cache) {
+        val builder = new TreeBuilder(null, cache);
+        new IndexedParser(bytes, offset, length, options).parse(builder);
+        return builder.result();
+    }
+
+    /**
+     * Parses a single json value from the remaining UTF-8 encoded bytes of the buffer, which may also be a direct
+     * buffer. The position of the buffer is not changed.
+     * @throws IllegalArgumentException If the bytes are not valid UTF-8.
+     */
+    public static @NotNull JsonNode parse(@NotNull @NonNull ByteBuffer buffer) {
+        try {
+            return parse(new Tokenizer(buffer));
+        } catch (UncheckedIOException e) {
+            throw new IllegalArgumentException("Failed to parse JSON! Malformed UTF-8 input.", e.getCause());
+        }
     }
 
-    protected @NotNull String indent(@NotNull @NonNull String stuff, int depth) {
-        StringBuilder res = new StringBuilder();
-        for (int i = 0; i < depth; i++) {
-            res.append(' ');
+    /**
+     * Parses a single json value from a UTF-8 encoded file. The file is memory mapped in windows rather than read onto
+     * the heap, so heap use only depends on the size of the resulting tree, and files over 2 GB are supported.
+     * @throws IOException If the file can't be read, or if it contains malformed UTF-8.
+     */
+    public static @NotNull JsonNode parse(@NotNull @NonNull Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return parse(new Tokenizer(channel));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-        String indent = res.toString();
-        return Arrays.stream(stuff.split("\n")).map((line) -> indent + line).collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Parses the text, keeping only the paths selected by the projection. See {@link Projection}.
+     */
+    public static @NotNull JsonNode parse(@NotNull @NonNull String text, @NotNull @NonNull Projection projection) {
+        return parse(text, projection, ParserOptions.DEFAULT);
+    }
+
+    /**
+     * See {@link #parse(String, Projection)}. The limits also apply to the skipped parts of the text.
+     */
+    public static @NotNull JsonNode parse(@NotNull @NonNull String text, @NotNull @NonNull Projection projection, @NotNull @NonNull ParserOptions options) {
+        return projection.parse(new Tokenizer(text), options);
+    }
+
+    /**
+     * Parses the text like {@link #parse(String)}, but objects and lists only record where their values are in the text,
+     * and parse each value the first time it is accessed. Objects and lists that are converted back to a string
+     * without being modified return their source text verbatim.
+     * <p>
+     * Syntax errors inside of a value are only reported when it is first accessed. Their lines and columns are relative
+     * to the start of that value. Since accessing a value modifies its container, the result must not be read from
+     * multiple threads at once.
+     */
+    public static @NotNull JsonNode parseLazy(@NotNull @NonNull String text) {
+        return parseLazy(text, ParserOptions.DEFAULT);
+    }
+
+    /**
+     * See {@link #parseLazy(String)}. The length limits are also applied to every value that is parsed later on. The
+     * depth limit is checked for the whole text up front, while skipping over the values.
+     */
+    public static @NotNull JsonNode parseLazy(@NotNull @NonNull String text, @NotNull @NonNull ParserOptions options) {
+        return LazyParser.parse(text, new Tokenizer(text), 0, options, 0, null);
+    }
+
+    /**
+     * Parses the text like {@link #parse(String)}, but if the top level value is an array, its elements are parsed in
+     * parallel on the common {@link ForkJoinPool}. Meant for large documents that hold most of their data in a single
+     * top level array.
+     */
+    public static @NotNull JsonNode parseParallel(@NotNull @NonNull String text) {
+        return parseParallel(text, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * See {@link #parseParallel(String)}. Syntax errors inside the elements report lines and columns relative to the
+     * start of the element range they were found in.
+     */
+    public static @NotNull JsonNode parseParallel(@NotNull @NonNull String text, @NotNull @NonNull ForkJoinPool pool) {
+        return parseParallel(text, pool, ParserOptions.DEFAULT);
+    }
+
+    /**
+     * See {@link #parseParallel(String)}. The depth limit counts the top level array as one level of every element.
+     */
+    public static @NotNull JsonNode parseParallel(@NotNull @NonNull String text, @NotNull @NonNull ParserOptions options) {
+        return parseParallel(text, ForkJoinPool.commonPool(), options);
+    }
+
+    /**
+     * See {@link #parseParallel(String, ForkJoinPool)} and {@link #parseParallel(String, ParserOptions)}.
+     */
+    public static @NotNull JsonNode parseParallel(@NotNull @NonNull String text, @NotNull @NonNull ForkJoinPool pool, @NotNull @NonNull ParserOptions options) {
+        return ParallelArrayParser.parse(text, pool, options);
+    }
+
+    /**
+     * Parses a sequence of json values, like newline delimited json, in parallel on the common
+     * {@link ForkJoinPool}. See {@link MultiDocumentReader}.
+     * @return The values in input order.
+     */
+    public static @NotNull Stream<@NotNull JsonNode> parseAll(@NotNull @NonNull Reader reader) {
+        return new MultiDocumentReader(reader).stream();
+    }
+
+    /**
+     * See {@link #parseAll(Reader)}. The limits apply to each of the values on its own.
+     */
+    public static @NotNull Stream<@NotNull JsonNode> parseAll(@NotNull @NonNull Reader reader, @NotNull @NonNull ParserOptions options) {
+        return new MultiDocumentReader(reader, options).stream();
+    }
+
+    /**
+     * Creates a non-blocking parser for UTF-8 input that arrives in chunks. Every complete top level value in the
+     * input is passed to the consumer as soon as its last byte has been fed. See {@link IncrementalParser}.
+     */
+    public static @NotNull IncrementalParser incrementalParser(@NotNull @NonNull Consumer<@NotNull JsonNode> consumer) {
+        return new IncrementalParser(new TreeBuilder(consumer));
+    }
+
+    /**
+     * Parses the text through an intermediate {@link ASTNode} tree, which is then translated into json nodes.
+     * Considerably slower than {@link #parse(String)}, only meant for debugging the grammar.
+     */
+    public static @NotNull JsonNode parseWithAST(@NotNull @NonNull String text) {
+        return translate(new Parser(text).value());
     }
 
     private static @NotNull String expect(@NotNull @NonNull String method, @NotNull @NonNull Class<? extends JsonNode> thisType, @NotNull @NonNull Class<?>... requiredTypes) {
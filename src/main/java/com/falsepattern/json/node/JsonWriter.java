@@ -0,0 +1,231 @@
+package com.falsepattern.json.node;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Serializes node trees straight into an output, in a single pass and without building a string for any subtree.
+ * <p>
+ * The tree is walked with an explicit stack instead of recursion, so the depth of the tree is only limited by memory.
+ */
+abstract class JsonWriter {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    //Open containers, innermost first
+    private final ArrayDeque<Frame> stack = new ArrayDeque<>();
+    //Spaces per nesting level, or -1 for compact output
+    private int indentWidth = -1;
+    //At least as many spaces as the deepest indent so far, written in slices
+    private String spaces = "";
+
+    private static final class Frame {
+        //Either map entries or nodes
+        final Iterator<?> iterator;
+        final boolean object;
+        boolean first = true;
+
+        Frame(Iterator<?> iterator, boolean object) {
+            this.iterator = iterator;
+            this.object = object;
+        }
+    }
+
+    abstract void write(char c) throws IOException;
+
+    /**
+     * Writes the chars of the text from start (inclusive) to end (exclusive) as they are.
+     */
+    abstract void write(String text, int start, int end) throws IOException;
+
+    final void write(String text) throws IOException {
+        write(text, 0, text.length());
+    }
+
+    /**
+     * Switches to pretty printed output, with every element of an object or list on its own line.
+     */
+    final JsonWriter pretty(int indentWidth) {
+        this.indentWidth = Math.max(0, indentWidth);
+        return this;
+    }
+
+    static JsonWriter of(Appendable out) {
+        return out instanceof Writer ? new WriterOutput((Writer) out) : new AppendableOutput(out);
+    }
+
+    /**
+     * @return The compact text of the node.
+     */
+    static String toString(JsonNode node) {
+        return toString(node, new AppendableOutput(new StringBuilder()));
+    }
+
+    /**
+     * @return The pretty printed text of the node.
+     */
+    static String prettyPrint(JsonNode node, int indentWidth) {
+        final AppendableOutput writer = new AppendableOutput(new StringBuilder());
+        writer.pretty(indentWidth);
+        return toString(node, writer);
+    }
+
+    private static String toString(JsonNode node, AppendableOutput writer) {
+        try {
+            writer.value(node);
+        } catch (IOException e) {
+            //StringBuilders do not throw
+            throw new UncheckedIOException(e);
+        }
+        return writer.out.toString();
+    }
+
+    final void value(JsonNode root) throws IOException {
+        open(root);
+        while (!stack.isEmpty()) {
+            final Frame frame = stack.peek();
+            if (!frame.iterator.hasNext()) {
+                stack.pop();
+                if (indentWidth >= 0) {
+                    //Empty containers keep a blank line between their brackets
+                    if (frame.first) newLine(stack.size());
+                    newLine(stack.size());
+                }
+                write(frame.object ? '}' : ']');
+                continue;
+            }
+            if (!frame.first) write(',');
+            frame.first = false;
+            if (indentWidth >= 0) newLine(stack.size());
+            if (frame.object) {
+                @SuppressWarnings("unchecked")
+                final Map.Entry<String, JsonNode> entry = (Map.Entry<String, JsonNode>) frame.iterator.next();
+                string(entry.getKey());
+                write(':');
+                if (indentWidth >= 0) write(' ');
+                open(entry.getValue());
+            } else {
+                open((JsonNode) frame.iterator.next());
+            }
+        }
+    }
+
+    private void newLine(int depth) throws IOException {
+        write('\n');
+        final int length = depth * indentWidth;
+        if (spaces.length() < length) {
+            final StringBuilder builder = new StringBuilder(Math.max(length, spaces.length() * 2));
+            while (builder.length() < builder.capacity()) builder.append(' ');
+            spaces = builder.toString();
+        }
+        write(spaces, 0, length);
+    }
+
+    /**
+     * Writes scalars completely, and only the opening bracket of objects and lists, whose contents are left to the loop
+     * in {@link #value(JsonNode)}.
+     */
+    private void open(JsonNode node) throws IOException {
+        if (node instanceof ObjectNode) {
+            final ObjectNode object = (ObjectNode) node;
+            //Pretty printing reformats the source text
+            final LazyParser.Range source = indentWidth < 0 ? object.pristineSource() : null;
+            if (source != null) {
+                write(source.text, source.start, source.end);
+                return;
+            }
+            write('{');
+            stack.push(new Frame(object.entries(), true));
+        } else if (node instanceof ListNode) {
+            final ListNode list = (ListNode) node;
+            //Pretty printing reformats the source text
+            final LazyParser.Range source = indentWidth < 0 ? list.pristineSource() : null;
+            if (source != null) {
+                write(source.text, source.start, source.end);
+                return;
+            }
+            write('[');
+            stack.push(new Frame(list.getJavaList().iterator(), false));
+        } else if (node instanceof StringNode) {
+            string(node.stringValue());
+        } else {
+            write(node.toString());
+        }
+    }
+
+    /**
+     * Writes the text as a quoted json string. Runs of chars that need no escaping are written in one piece.
+     */
+    final void string(String text) throws IOException {
+        write('"');
+        final int length = text.length();
+        int run = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c >= 32 && c != '"' && c != '\\') continue;
+            if (run < i) write(text, run, i);
+            run = i + 1;
+            write('\\');
+            switch (c) {
+                case '"': write('"'); break;
+                case '\\': write('\\'); break;
+                case '\b': write('b'); break;
+                case '\f': write('f'); break;
+                case '\n': write('n'); break;
+                case '\r': write('r'); break;
+                case '\t': write('t'); break;
+                default:
+                    write('u');
+                    write('0');
+                    write('0');
+                    write(HEX[c >>> 4]);
+                    write(HEX[c & 0xF]);
+            }
+        }
+        if (run < length) write(text, run, length);
+        write('"');
+    }
+
+    private static final class AppendableOutput extends JsonWriter {
+        final Appendable out;
+
+        AppendableOutput(Appendable out) {
+            this.out = out;
+        }
+
+        @Override
+        void write(char c) throws IOException {
+            out.append(c);
+        }
+
+        @Override
+        void write(String text, int start, int end) throws IOException {
+            out.append(text, start, end);
+        }
+    }
+
+    /**
+     * Writers copy the chars out of strings directly, unlike {@link Writer#append(CharSequence, int, int)}, which goes
+     * through a substring first.
+     */
+    private static final class WriterOutput extends JsonWriter {
+        private final Writer out;
+
+        WriterOutput(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        void write(char c) throws IOException {
+            out.write(c);
+        }
+
+        @Override
+        void write(String text, int start, int end) throws IOException {
+            out.write(text, start, end - start);
+        }
+    }
+}
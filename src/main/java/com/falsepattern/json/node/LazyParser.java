@@ -0,0 +1,149 @@
+package com.falsepattern.json.node;
+
+import com.falsepattern.json.parsing.InvalidSyntaxException;
+import com.falsepattern.json.parsing.ParserOptions;
+import com.falsepattern.json.parsing.TokenUtil;
+import com.falsepattern.json.parsing.token.Token;
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * Builds objects and lists that only remember where their values are in the source text, and parse each value the
+ * first time it is accessed. Scalars are always parsed right away.
+ * <p>
+ * Creating a lazy object or list checks its own structure, but the contents of its values are only skipped over with
+ * a bracket counter, so syntax errors inside of them are only reported once they are accessed. The lines and columns
+ * of those errors are relative to the start of the value. The bracket counter does enforce the depth limit, and each
+ * value remembers its depth, so lazily accessed values stay within the limit as well.
+ */
+final class LazyParser {
+    private LazyParser() {
+    }
+
+    /**
+     * A slice of the source text holding a single value.
+     */
+    static final class Range {
+        final String text;
+        final int start;
+        final int end;
+        //The limits of the parse that found the range, applied again when it is parsed
+        final ParserOptions options;
+        //The number of objects and lists the value is nested in, counted against the depth limit
+        final int depth;
+
+        Range(String text, int start, int end, ParserOptions options, int depth) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+            this.options = options;
+            this.depth = depth;
+        }
+
+        /**
+         * @param parent The lazily parsed object or list the value is in, if it is being stored there.
+         */
+        JsonNode parse(@Nullable JsonNode parent) {
+            return LazyParser.parse(text, new Tokenizer(text, start, end), start, options, depth, parent);
+        }
+
+        @Override
+        public String toString() {
+            return text.substring(start, end);
+        }
+    }
+
+    /**
+     * Reads the next value from the tokenizer.
+     * @param base The offset of the start of the tokenizer into the text.
+     * @param depth The number of objects and lists the value is nested in.
+     * @param parent See {@link Range#parse(JsonNode)}.
+     */
+    static JsonNode parse(String text, Tokenizer tokenizer, int base, ParserOptions options, int depth, @Nullable JsonNode parent) {
+        tokenizer.setLimits(options);
+        val type = tokenizer.peekNextType();
+        if (type == null) throw new InvalidSyntaxException(TokenUtil.VALUE);
+        val start = base + (int) tokenizer.offset();
+        switch (type) {
+            case LBrace:
+                if (depth >= options.maxDepth) throw TokenUtil.tooDeep(tokenizer, options.maxDepth);
+                return object(text, tokenizer, base, start, options, depth, parent);
+            case LBracket:
+                if (depth >= options.maxDepth) throw TokenUtil.tooDeep(tokenizer, options.maxDepth);
+                return list(text, tokenizer, base, start, options, depth, parent);
+            default:
+                return JsonNode.parse(tokenizer, options);
+        }
+    }
+
+    /**
+     * Drops the source text of a lazily parsed object or list after it was modified, along with the source text of
+     * every container it was parsed from, since that text no longer matches their contents either.
+     */
+    static void dropSource(@Nullable JsonNode node) {
+        //Stops at the first container without source text, its parents already dropped theirs
+        while (node instanceof ObjectNode || node instanceof ListNode) {
+            node = node instanceof ObjectNode ? ((ObjectNode) node).dropOwnSource() : ((ListNode) node).dropOwnSource();
+        }
+    }
+
+    private static ObjectNode object(String text, Tokenizer tokenizer, int base, int start, ParserOptions options, int depth, JsonNode parent) {
+        tokenizer.skipNextToken();
+        val pending = new LinkedHashMap<String, Range>();
+        if (tokenizer.peekNextType() == Token.Type.RBrace) {
+            tokenizer.skipNextToken();
+        } else {
+            while (true) {
+                TokenUtil.expect(tokenizer, Token.Type.String, "string");
+                val key = tokenizer.popNextString();
+                TokenUtil.expect(tokenizer, Token.Type.Colon, "':'");
+                tokenizer.skipNextToken();
+                pending.put(key, skipValue(text, tokenizer, base, options, depth + 1));
+                val type = tokenizer.peekNextType();
+                if (type != Token.Type.Comma && type != Token.Type.RBrace) throw TokenUtil.error(tokenizer, "',', '}'");
+                tokenizer.skipNextToken();
+                if (type == Token.Type.RBrace) break;
+            }
+        }
+        val node = new ObjectNode();
+        node.keepInsertionOrder();
+        node.setLazy(new Range(text, start, base + (int) tokenizer.offset(), options, depth), pending, parent);
+        return node;
+    }
+
+    private static ListNode list(String text, Tokenizer tokenizer, int base, int start, ParserOptions options, int depth, JsonNode parent) {
+        tokenizer.skipNextToken();
+        val pending = new ArrayList<Range>();
+        if (tokenizer.peekNextType() == Token.Type.RBracket) {
+            tokenizer.skipNextToken();
+        } else {
+            while (true) {
+                pending.add(skipValue(text, tokenizer, base, options, depth + 1));
+                val type = tokenizer.peekNextType();
+                if (type != Token.Type.Comma && type != Token.Type.RBracket) throw TokenUtil.error(tokenizer, "',', ']'");
+                tokenizer.skipNextToken();
+                if (type == Token.Type.RBracket) break;
+            }
+        }
+        val node = new ListNode();
+        node.setLazy(new Range(text, start, base + (int) tokenizer.offset(), options, depth), pending, parent);
+        return node;
+    }
+
+    /**
+     * Skips the next value without materializing any of its tokens.
+     * @param depth The number of objects and lists the value is nested in.
+     * @return The range of the skipped value.
+     */
+    private static Range skipValue(String text, Tokenizer tokenizer, int base, ParserOptions options, int depth) {
+        //Position the cursor at the start of the value
+        tokenizer.peekNextType();
+        val start = base + (int) tokenizer.offset();
+        TokenUtil.skipValue(tokenizer, depth, options.maxDepth);
+        return new Range(text, start, base + (int) tokenizer.offset(), options, depth);
+    }
+}
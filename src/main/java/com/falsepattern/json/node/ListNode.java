@@ -3,39 +3,97 @@ package com.falsepattern.json.node;
 import com.falsepattern.json.parsing.ASTNode;
 import lombok.NonNull;
 import lombok.val;
+import lombok.var;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.UnmodifiableView;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Lazily parsed lists parse and cache each element the first time it is read, so even reading one is not safe from
+ * multiple threads at once without outside synchronization.
+ */
 public class ListNode extends JsonNode {
     private final List<@NotNull JsonNode> nodes = new ArrayList<>();
+    //Source text of a lazily parsed list, as long as it is unmodified
+    private LazyParser.Range source;
+    //Elements of a lazily parsed list, null once accessed. The matching entries of nodes are null until then.
+    private List<LazyParser.Range> pending;
+    //The lazily parsed object or list this list was parsed from, which loses its source text along with this one
+    private JsonNode parent;
+
+    /**
+     * @param parent See {@link LazyParser.Range#parse(JsonNode)}.
+     */
+    void setLazy(@NotNull LazyParser.Range source, @NotNull List<LazyParser.@NotNull Range> pending, @Nullable JsonNode parent) {
+        this.source = source;
+        this.parent = parent;
+        if (!pending.isEmpty()) {
+            this.pending = pending;
+            nodes.addAll(Collections.nCopies(pending.size(), null));
+        }
+    }
+
+    /**
+     * Used by {@link LazyParser#dropSource(JsonNode)}.
+     * @return The parent that has to drop its source text too, or null if this list had none left.
+     */
+    JsonNode dropOwnSource() {
+        if (source == null) return null;
+        source = null;
+        return parent;
+    }
+
+    /**
+     * @return True if this list was parsed lazily, and neither it nor any of its accessed elements were modified since.
+     * Modifications drop the source text of every object and list they are nested in, so this is a single check.
+     */
+    boolean isPristine() {
+        return source != null;
+    }
+
+    /**
+     * @return The source text, if this list is pristine.
+     */
+    LazyParser.Range pristineSource() {
+        return source;
+    }
+
+    private void materialize() {
+        if (pending == null) return;
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i) == null) nodes.set(i, pending.get(i).parse(this));
+        }
+        pending = null;
+    }
+
+    private void modify() {
+        materialize();
+        LazyParser.dropSource(this);
+    }
 
     @Override
     public boolean equals(@NotNull JsonNode other) {
         if (!other.isList()) return false;
+        materialize();
         return nodes.equals(other.getJavaList());
     }
 
+    /**
+     * Lazily parsed lists that were not modified return their source text verbatim, including any whitespace.
+     */
     @Contract(pure = true)
     @Override
     public @NotNull String toString() {
-        return "[" + nodes.stream().map(JsonNode::toString).collect(Collectors.joining(",")) + "]";
-    }
-
-    @Contract(pure = true)
-    @Override
-    public @NotNull String prettyPrint(int indentDepth) {
-        return "[\n" + nodes.stream()
-                            .map((node) -> node.prettyPrint(indentDepth))
-                            .map((block) -> indent(block, indentDepth))
-                            .collect(Collectors.joining(",\n")) + "\n]";
+        return JsonWriter.toString(this);
     }
 
     @Override
     public @NotNull JsonNode clone() {
+        if (isPristine()) return source.parse(null);
+        materialize();
         val clone = new ListNode();
         for (val node: nodes) {
             clone.add(node.clone());
@@ -43,33 +101,42 @@ public class ListNode extends JsonNode {
         return clone;
     }
 
-    @Contract(pure = true)
     @Override
     public @NotNull JsonNode get(int index) {
-        return nodes.get(index);
+        var node = nodes.get(index);
+        if (node == null) {
+            node = pending.get(index).parse(this);
+            nodes.set(index, node);
+            pending.set(index, null);
+        }
+        return node;
     }
 
     @Contract(pure = true)
     @Override
     public @NotNull @UnmodifiableView List<@NotNull JsonNode> getJavaList() {
+        materialize();
         return Collections.unmodifiableList(nodes);
     }
 
     @Contract(mutates = "this")
     @Override
     public void set(int index, @NotNull @NonNull JsonNode value) {
+        modify();
         nodes.set(index, value);
     }
 
     @Contract(mutates = "this")
     @Override
     public void add(@NotNull @NonNull JsonNode value) {
+        modify();
         nodes.add(value);
     }
 
     @Contract(mutates = "this")
     @Override
     public @NotNull JsonNode remove(int key) {
+        modify();
         return nodes.remove(key);
     }
 
@@ -0,0 +1,269 @@
+package com.falsepattern.json.node;
+
+import com.falsepattern.json.parsing.InvalidSyntaxException;
+import com.falsepattern.json.parsing.ParserOptions;
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.NonNull;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads a sequence of json values, like newline delimited json or simply concatenated documents, and parses them in
+ * parallel on an {@link Executor}. The values are returned in input order.
+ * <p>
+ * The input is cut into batches of whole values on the calling thread, by tracking only string and bracket nesting.
+ * Batches are cut at whitespace outside any value, so values that directly follow each other without whitespace end
+ * up in the same batch. Each batch is then parsed as a whole by a task on the executor. Only a bounded number of
+ * batches are read ahead, so memory use does not depend on the length of the input.
+ * <p>
+ * Syntax errors are thrown from {@link #hasNext()} and {@link #next()} once the batch containing them is reached. Their
+ * line and column numbers are relative to the start of that batch. IO errors are thrown as
+ * {@link UncheckedIOException}. The reader is not closed.
+ * <p>
+ * The {@link ParserOptions} apply to each of the values on its own. The document length limit is checked by the batch
+ * scan, so a single oversized value is rejected before it is buffered in full. Values that directly follow each other
+ * without whitespace count as one document for that limit.
+ */
+public class MultiDocumentReader implements Iterator<JsonNode> {
+    public static final int DEFAULT_BATCH_SIZE = 1 << 16;
+
+    private final Reader source;
+    private final Executor executor;
+    private final int batchSize;
+    private final int maxPending;
+    private final ParserOptions options;
+    private final Queue<CompletableFuture<List<JsonNode>>> pending = new ArrayDeque<>();
+    private char[] buffer;
+    private int limit = 0;
+    private boolean exhausted = false;
+    private List<JsonNode> current = Collections.emptyList();
+    private int index = 0;
+
+    //State of the boundary scan, which always stops at the end of the buffer
+    private int scanned = 0;
+    private int boundary = 0;
+    private int depth = 0;
+    private boolean inString = false;
+    private boolean escaped = false;
+    //Set once the scan stopped in front of a value that is longer than the document length limit
+    private boolean overlong = false;
+
+    /**
+     * Parses on the common {@link ForkJoinPool}.
+     */
+    public MultiDocumentReader(@NotNull @NonNull Reader source) {
+        this(source, ParserOptions.DEFAULT);
+    }
+
+    /**
+     * Parses on the common {@link ForkJoinPool}.
+     */
+    public MultiDocumentReader(@NotNull @NonNull Reader source, @NotNull @NonNull ParserOptions options) {
+        this(source, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE, Runtime.getRuntime().availableProcessors() * 2, options);
+    }
+
+    public MultiDocumentReader(@NotNull @NonNull Reader source, @NotNull @NonNull Executor executor) {
+        this(source, executor, DEFAULT_BATCH_SIZE, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * Parses within the {@link ParserOptions#DEFAULT default limits}.
+     * @param batchSize The number of chars after which a batch is cut at the next boundary between two values.
+     * @param maxPending The number of batches that are read and parsed ahead of the one being iterated.
+     */
+    public MultiDocumentReader(@NotNull @NonNull Reader source, @NotNull @NonNull Executor executor, int batchSize, int maxPending) {
+        this(source, executor, batchSize, maxPending, ParserOptions.DEFAULT);
+    }
+
+    /**
+     * @param batchSize The number of chars after which a batch is cut at the next boundary between two values.
+     * @param maxPending The number of batches that are read and parsed ahead of the one being iterated.
+     * @param options The limits of each value.
+     */
+    public MultiDocumentReader(@NotNull @NonNull Reader source, @NotNull @NonNull Executor executor, int batchSize, int maxPending, @NotNull @NonNull ParserOptions options) {
+        if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+        if (maxPending <= 0) throw new IllegalArgumentException("Pending batch count must be positive, got " + maxPending);
+        this.source = source;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.options = options;
+        this.buffer = new char[batchSize + Tokenizer.DEFAULT_BUFFER_SIZE];
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (index == current.size()) {
+            while (pending.size() < maxPending) {
+                final String batch;
+                try {
+                    batch = nextBatch();
+                } catch (InvalidSyntaxException e) {
+                    //Reported after the values before it, and ends the input
+                    CompletableFuture<List<JsonNode>> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(e);
+                    pending.add(failed);
+                    limit = scanned = boundary = 0;
+                    exhausted = true;
+                    break;
+                }
+                if (batch == null) break;
+                pending.add(CompletableFuture.supplyAsync(() -> parseBatch(batch), executor));
+            }
+            val next = pending.poll();
+            if (next == null) return false;
+            try {
+                current = next.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error) throw (Error) e.getCause();
+                throw e;
+            }
+            index = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public @NotNull JsonNode next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.get(index++);
+    }
+
+    /**
+     * @return A sequential, ordered stream over the remaining values. The parsing itself still happens in parallel.
+     */
+    public @NotNull Stream<@NotNull JsonNode> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private List<JsonNode> parseBatch(String batch) {
+        val tokenizer = new Tokenizer(batch);
+        //The length of each value was already checked by the scan, the batch as a whole may be longer
+        final ParserOptions batchOptions = options.withMaxDocumentLength(Long.MAX_VALUE);
+        val result = new ArrayList<JsonNode>();
+        while (tokenizer.hasNextToken()) {
+            result.add(JsonNode.parse(tokenizer, batchOptions));
+        }
+        return result;
+    }
+
+    /**
+     * @return The next batch of whole values, or null if the input is exhausted.
+     * @throws InvalidSyntaxException If the next value is longer than the document length limit. The values before it
+     *                                are returned as a batch of their own first.
+     */
+    private String nextBatch() {
+        while (boundary < batchSize && !exhausted && !overlong) {
+            fill();
+            scan();
+        }
+        if (overlong && boundary == 0) throw tooLong();
+        //Whatever is left at the end of the input is the last batch, even if it's incomplete
+        final int end = exhausted && !overlong && boundary < batchSize ? limit : boundary;
+        if (end == 0) return null;
+        val batch = new String(buffer, 0, end);
+        System.arraycopy(buffer, end, buffer, 0, limit - end);
+        limit -= end;
+        scanned -= end;
+        boundary = 0;
+        return batch;
+    }
+
+    private void fill() {
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        final int read;
+        try {
+            read = source.read(buffer, limit, buffer.length - limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (read < 0) {
+            exhausted = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    /**
+     * Advances the boundary scan to the end of the buffer, remembering the last whitespace outside of any value. Stops
+     * early if the value being scanned gets longer than the document length limit.
+     */
+    private void scan() {
+        for (; scanned < limit; scanned++) {
+            if (scanned - boundary > options.maxDocumentLength) {
+                overlong = true;
+                return;
+            }
+            val c = buffer[scanned];
+            if (inString) {
+                //A backslash always swallows the next char, whether it's a valid escape or not
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"':
+                    inString = true;
+                    break;
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    //Unbalanced brackets are left for the parser to report
+                    if (depth > 0) depth--;
+                    break;
+                case ' ':
+                case '\t':
+                case '\r':
+                case '\n':
+                    if (depth == 0) boundary = scanned;
+                    break;
+            }
+        }
+    }
+
+    private InvalidSyntaxException tooLong() {
+        //Counted from 0, like the tokenizer does
+        int line = 0;
+        int column = 0;
+        for (int i = 0; i < scanned; i++) {
+            if (buffer[i] == '\n') {
+                line++;
+                column = 0;
+            } else {
+                column++;
+            }
+        }
+        return new InvalidSyntaxException("Document is longer than the limit of " + options.maxDocumentLength + " chars", line, column);
+    }
+}
@@ -3,69 +3,171 @@ package com.falsepattern.json.node;
 import com.falsepattern.json.parsing.ASTNode;
 import lombok.NonNull;
 import lombok.val;
+import lombok.var;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.UnmodifiableView;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Keys are stored in insertion order. They are written in the order of the sorting rule, which is alphabetical for new
+ * objects, and insertion order for parsed ones, which keeps the order of the source text. The sorted order is computed
+ * once, and reused until the object is modified.
+ * <p>
+ * Lazily parsed objects parse and cache each value the first time it is read, so even reading one is not safe from
+ * multiple threads at once without outside synchronization.
+ */
 public class ObjectNode extends JsonNode {
-    private final Map<@NotNull String, @NotNull JsonNode> values = new HashMap<>();
+    private Map<@NotNull String, @NotNull JsonNode> values = new LinkedHashMap<>();
+    //Null for insertion order
     private Comparator<@NotNull String> keySorter = Comparator.naturalOrder();
+    //Entries in the order of the sorting rule, null until needed and after every modification
+    private List<Map.Entry<@NotNull String, @NotNull JsonNode>> sorted;
+    //Source text of a lazily parsed object, as long as it is unmodified
+    private LazyParser.Range source;
+    //Values of a lazily parsed object in source order, the ones that were already accessed are also in values
+    private Map<@NotNull String, LazyParser.@NotNull Range> pending;
+    //The lazily parsed object or list this object was parsed from, which loses its source text along with this one
+    private JsonNode parent;
+
+    /**
+     * Writes the keys in the order they were added, instead of sorting them. Lazily parsed objects only lose their
+     * source text if a sorting rule was active, since that is the only case where the written order changes.
+     */
+    void keepInsertionOrder() {
+        if (keySorter == null) return;
+        LazyParser.dropSource(this);
+        keySorter = null;
+        sorted = null;
+    }
+
+    /**
+     * @param pending The values in source order.
+     * @param parent See {@link LazyParser.Range#parse(JsonNode)}.
+     */
+    void setLazy(@NotNull LazyParser.Range source, @NotNull Map<@NotNull String, LazyParser.@NotNull Range> pending,
+                 @Nullable JsonNode parent) {
+        this.source = source;
+        this.pending = pending.isEmpty() ? null : pending;
+        this.parent = parent;
+    }
+
+    /**
+     * Used by {@link LazyParser#dropSource(JsonNode)}.
+     * @return The parent that has to drop its source text too, or null if this object had none left.
+     */
+    JsonNode dropOwnSource() {
+        if (source == null) return null;
+        source = null;
+        return parent;
+    }
+
+    /**
+     * @return True if this object was parsed lazily, and neither it nor any of its accessed values were modified since.
+     * Modifications drop the source text of every object and list they are nested in, so this is a single check.
+     */
+    boolean isPristine() {
+        return source != null;
+    }
+
+    /**
+     * @return The source text, if this object is pristine.
+     */
+    LazyParser.Range pristineSource() {
+        return source;
+    }
+
+    /**
+     * @return The entries in the order of the sorting rule.
+     */
+    Iterator<Map.Entry<@NotNull String, @NotNull JsonNode>> entries() {
+        materialize();
+        if (keySorter == null) return values.entrySet().iterator();
+        if (sorted == null) {
+            sorted = new ArrayList<>(values.entrySet());
+            sorted.sort(Map.Entry.comparingByKey(keySorter));
+        }
+        return sorted.iterator();
+    }
+
+    private void materialize() {
+        if (pending == null) return;
+        val ordered = new LinkedHashMap<String, JsonNode>(pending.size() * 4 / 3 + 1);
+        for (val entry: pending.entrySet()) {
+            val value = values.get(entry.getKey());
+            ordered.put(entry.getKey(), value != null ? value : entry.getValue().parse(this));
+        }
+        values = ordered;
+        pending = null;
+        sorted = null;
+    }
+
+    private void modify() {
+        materialize();
+        LazyParser.dropSource(this);
+        sorted = null;
+    }
 
     @Override
     public boolean equals(@NotNull JsonNode other) {
         if (!other.isObject()) return false;
+        materialize();
         return values.equals(other.getJavaMap());
     }
 
+    /**
+     * Lazily parsed objects that were not modified return their source text verbatim, including any whitespace.
+     */
     @Contract(pure = true)
     @Override
     public @NotNull String toString() {
-        return "{" + values.entrySet().stream().sorted(Map.Entry.comparingByKey(keySorter)).map((entry) -> "\"" + StringNode.stringify(entry.getKey()) + "\":" + entry.getValue()).collect(Collectors.joining(",")) + "}";
-    }
-
-    @Contract(pure = true)
-    @Override
-    public @NotNull String prettyPrint(int indentDepth) {
-        return "{\n" + values.entrySet().stream().sorted(Map.Entry.comparingByKey(keySorter)).map((entry) -> {
-                                 val key = entry.getKey();
-                                 val value = entry.getValue().prettyPrint(indentDepth);
-                                 return stringifyEntry(key, value);
-                             })
-                             .map((entry) -> indent(entry, indentDepth))
-                             .collect(Collectors.joining(",\n")) + "\n}";
+        return JsonWriter.toString(this);
     }
 
     @Override
     public @NotNull JsonNode clone() {
+        if (isPristine()) return source.parse(null);
+        materialize();
         val clone = new ObjectNode();
-        values.forEach((key, value) -> clone.set(key, value.clone()));
+        values.forEach((key, value) -> clone.values.put(key, value.clone()));
+        clone.keySorter = keySorter;
         return clone;
     }
 
-    @Contract(pure = true)
     @Override
     public @NotNull JsonNode get(@NotNull @NonNull String key) {
-        return Objects.requireNonNull(values.get(key), "No such key: " + key + " in json object");
+        var value = values.get(key);
+        if (value == null && pending != null) {
+            val range = pending.get(key);
+            if (range != null) {
+                value = range.parse(this);
+                values.put(key, value);
+                sorted = null;
+            }
+        }
+        return Objects.requireNonNull(value, "No such key: " + key + " in json object");
     }
 
     @Contract(pure = true)
     @Override
     public @NotNull @UnmodifiableView Map<@NotNull String, @NotNull JsonNode> getJavaMap() {
+        materialize();
         return Collections.unmodifiableMap(values);
     }
 
     @Contract(mutates = "this")
     @Override
     public void set(@NotNull @NonNull String key, @NotNull @NonNull JsonNode value) {
+        modify();
         values.put(key, value);
     }
 
     @Contract(mutates = "this")
     @Override
     public @NotNull JsonNode remove(@NotNull @NonNull String key) {
+        modify();
         return values.remove(key);
     }
 
@@ -78,38 +180,33 @@ public class ObjectNode extends JsonNode {
     @Contract(pure = true)
     @Override
     public int size() {
-        return values.size();
+        return pending == null ? values.size() : pending.size();
     }
 
     @Contract(pure = true)
     @Override
     public boolean containsKey(@NotNull @NonNull String key) {
-        return values.containsKey(key);
+        return pending != null ? pending.containsKey(key) : values.containsKey(key);
     }
 
     @Contract(mutates = "this")
     public void setSortingRule(@NotNull @NonNull Comparator<String> rule) {
+        LazyParser.dropSource(this);
         keySorter = rule;
+        sorted = null;
     }
 
     @Contract(pure = true)
     public static @NotNull ObjectNode translate(@NotNull @NonNull ASTNode node) {
         if (!Objects.equals(node.type, "obj")) throw new InvalidSemanticsException("ObjectNode", node);
-        val order = new ArrayList<String>();
         val result = new ObjectNode();
+        result.keepInsertionOrder();
         val children = node.getChildren();
         for (val child: children) {
             val parts = child.getChildren();
             val key = StringNode.translate(parts.get(0)).stringValue();
-            order.add(key);
             result.set(key, JsonNode.translate(parts.get(1)));
         }
-        result.setSortingRule(Comparator.comparingInt(order::indexOf));
         return result;
     }
-
-    @Contract(pure = true)
-    private static @NotNull String stringifyEntry(@NotNull @NonNull String key, @NotNull @NonNull String value) {
-        return "\"" + StringNode.stringify(key) + "\": " + value;
-    }
 }
@@ -0,0 +1,172 @@
+package com.falsepattern.json.node;
+
+import com.falsepattern.json.parsing.InvalidSyntaxException;
+import com.falsepattern.json.parsing.ParserOptions;
+import com.falsepattern.json.parsing.token.Token;
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses a document whose top level value is an array by splitting the elements across a {@link ForkJoinPool}.
+ * <p>
+ * A sequential pre-scan finds the commas between the top level elements, tracking only strings, escapes and bracket
+ * depth. The elements are then split into ranges of roughly {@link #THRESHOLD} chars, which are parsed by separate
+ * tasks and joined back in order. Anything that does not look like a well-formed top level array to the pre-scan is
+ * handed to the sequential parser instead, which also takes care of reporting the error.
+ */
+class ParallelArrayParser {
+    static final int THRESHOLD = 1 << 16;
+
+    private final String text;
+    //The limits of each element, which sits one level below the top level array
+    private final ParserOptions elementOptions;
+    //Start of each element, followed by the position of the closing bracket
+    private int[] starts = new int[1024];
+    private int count = 0;
+
+    private ParallelArrayParser(String text, ParserOptions elementOptions) {
+        this.text = text;
+        this.elementOptions = elementOptions;
+    }
+
+    static JsonNode parse(String text, ForkJoinPool pool, ParserOptions options) {
+        //Documents that break the length or depth limits on their own are left to the sequential parser to report
+        if (text.length() > options.maxDocumentLength || options.maxDepth == 1) {
+            return JsonNode.parse(text, options);
+        }
+        val parser = new ParallelArrayParser(text, options.withMaxDepth(options.maxDepth - 1));
+        if (!parser.scan()) {
+            return JsonNode.parse(text, options);
+        }
+        val result = new ListNode();
+        if (parser.count > 1) {
+            for (val node: pool.invoke(parser.new Task(0, parser.count - 1))) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return False if the text does not start with an array, or its brackets or strings are unbalanced.
+     */
+    private boolean scan() {
+        val length = text.length();
+        int i = skipWhitespace(0);
+        if (i == length || text.charAt(i) != '[') return false;
+        add(++i);
+        int depth = 1;
+        boolean inString = false;
+        for (; i < length; i++) {
+            val c = text.charAt(i);
+            if (inString) {
+                //A backslash always swallows the next char, whether it's a valid escape or not
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"':
+                    inString = true;
+                    break;
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    if (--depth == 0) {
+                        if (count == 1 && skipWhitespace(starts[0]) == i) {
+                            //Empty array, there is no first element after all
+                            starts[0] = i;
+                        } else {
+                            add(i);
+                        }
+                        return c == ']';
+                    }
+                    break;
+                case ',':
+                    if (depth == 1) add(i + 1);
+                    break;
+            }
+        }
+        return false;
+    }
+
+    private int skipWhitespace(int i) {
+        while (i < text.length()) {
+            val c = text.charAt(i);
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\n') break;
+            i++;
+        }
+        return i;
+    }
+
+    private void add(int start) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+        }
+        starts[count++] = start;
+    }
+
+    /**
+     * Parses the elements from first (inclusive) to last (exclusive).
+     */
+    private void parseRange(int first, int last, List<JsonNode> out) {
+        //Leave out the comma after the range, but not the closing bracket
+        val end = last == count - 1 ? starts[last] + 1 : starts[last] - 1;
+        val tokenizer = new Tokenizer(text, starts[first], end);
+        for (int i = first; i < last; i++) {
+            if (i > first) expect(tokenizer, Token.Type.Comma);
+            out.add(JsonNode.parse(tokenizer, elementOptions));
+        }
+        if (last == count - 1) {
+            expect(tokenizer, Token.Type.RBracket);
+        } else if (tokenizer.hasNextToken()) {
+            throw new InvalidSyntaxException("',', ']'", tokenizer.peekNextToken());
+        }
+    }
+
+    private static void expect(Tokenizer tokenizer, Token.Type type) {
+        val token = tokenizer.popNextToken();
+        if (token == null) throw new InvalidSyntaxException("',', ']'");
+        if (token.tokenType != type) throw new InvalidSyntaxException("',', ']'", token);
+    }
+
+    private class Task extends RecursiveTask<List<JsonNode>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int first;
+        private final int last;
+
+        Task(int first, int last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected List<JsonNode> compute() {
+            if (last - first > 1 && starts[last] - starts[first] > THRESHOLD) {
+                val middle = (first + last) >>> 1;
+                val left = new Task(first, middle);
+                left.fork();
+                val right = new Task(middle, last).compute();
+                val result = left.join();
+                result.addAll(right);
+                return result;
+            }
+            val result = new ArrayList<JsonNode>(last - first);
+            parseRange(first, last, result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.falsepattern.json.node;
+
+import com.falsepattern.json.parsing.InvalidSyntaxException;
+import com.falsepattern.json.parsing.NumberUtil;
+import com.falsepattern.json.parsing.ParserOptions;
+import com.falsepattern.json.parsing.StringUtil;
+import com.falsepattern.json.parsing.TokenUtil;
+import com.falsepattern.json.parsing.token.Token;
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.NonNull;
+import lombok.val;
+import lombok.var;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Pulls the values at a fixed set of paths out of raw json text, without building a tree for the rest of the document.
+ * Paths look like {@code $.header.type}, {@code $.items[0].id} or {@code $['key with spaces']}, where the leading
+ * {@code $} is optional.
+ * <p>
+ * The document is scanned only until every path has been found, so anything after the last match is neither read nor
+ * validated. Everything that is walked past is skipped without creating any tokens or nodes for it.
+ * <p>
+ * Extractors are immutable, and can be shared between threads.
+ */
+public final class PathExtractor {
+    private final Step root = new Step(null);
+    private final String[] paths;
+
+    private static final class Step {
+        //The key leading to this step, as it appears in json text without escapes
+        final String quoted;
+        final Map<String, Step> keys = new LinkedHashMap<>();
+        final Map<Integer, Step> indices = new HashMap<>();
+        //Index of the path that ends here, or -1
+        int target = -1;
+
+        Step(Object part) {
+            quoted = part instanceof String ? "\"" + part + "\"" : null;
+        }
+    }
+
+    private PathExtractor(String[] paths) {
+        this.paths = paths.clone();
+        for (int i = 0; i < paths.length; i++) {
+            var step = root;
+            for (val part: split(paths[i])) {
+                val next = part instanceof String ? step.keys.get(part) : step.indices.get(part);
+                if (next != null) {
+                    step = next;
+                    continue;
+                }
+                val created = new Step(part);
+                if (part instanceof String) {
+                    step.keys.put((String) part, created);
+                } else {
+                    step.indices.put((Integer) part, created);
+                }
+                step = created;
+            }
+            if (step.target >= 0) throw new IllegalArgumentException("Duplicate path: " + paths[i]);
+            step.target = i;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException If a path is malformed, or present twice.
+     */
+    public static @NotNull PathExtractor of(@NotNull @NonNull String @NotNull ... paths) {
+        return new PathExtractor(paths);
+    }
+
+    /**
+     * Extracts the paths within the {@link ParserOptions#DEFAULT default limits}.
+     */
+    public @NotNull Result extract(@NotNull @NonNull String text) throws InvalidSyntaxException {
+        return extract(text, ParserOptions.DEFAULT);
+    }
+
+    public @NotNull Result extract(@NotNull @NonNull String text, @NotNull @NonNull ParserOptions options) throws InvalidSyntaxException {
+        return extract(new Tokenizer(text), options);
+    }
+
+    /**
+     * Extracts the paths within the {@link ParserOptions#DEFAULT default limits}.
+     * @throws IllegalArgumentException If the bytes are not valid UTF-8.
+     */
+    public @NotNull Result extract(byte @NotNull @NonNull [] utf8) throws InvalidSyntaxException {
+        return extract(utf8, ParserOptions.DEFAULT);
+    }
+
+    /**
+     * @throws IllegalArgumentException If the bytes are not valid UTF-8.
+     */
+    public @NotNull Result extract(byte @NotNull @NonNull [] utf8, @NotNull @NonNull ParserOptions options) throws InvalidSyntaxException {
+        try {
+            return extract(new Tokenizer(ByteBuffer.wrap(utf8)), options);
+        } catch (UncheckedIOException e) {
+            throw new IllegalArgumentException("Failed to parse JSON! Malformed UTF-8 input.", e.getCause());
+        }
+    }
+
+    /**
+     * Reads the next value from the tokenizer, up to the point where all paths were found. If they were, the tokenizer
+     * is left in the middle of the value.
+     * <p>
+     * Keeps the limits the tokenizer already has, or uses the {@link ParserOptions#DEFAULT default limits} if it has
+     * none.
+     */
+    public @NotNull Result extract(@NotNull @NonNull Tokenizer tokenizer) throws InvalidSyntaxException {
+        return extract(tokenizer, ParserOptions.of(tokenizer));
+    }
+
+    /**
+     * See {@link #extract(Tokenizer)}. The length limits also apply to the skipped parts of the value.
+     */
+    public @NotNull Result extract(@NotNull @NonNull Tokenizer tokenizer, @NotNull @NonNull ParserOptions options) throws InvalidSyntaxException {
+        tokenizer.setLimits(options);
+        val result = new Result(paths.length);
+        walk(root, tokenizer, result);
+        return result;
+    }
+
+    /**
+     * @return True once all paths were found.
+     */
+    private boolean walk(Step step, Tokenizer tokenizer, Result result) {
+        val type = tokenizer.peekNextType();
+        if (type == null) throw new InvalidSyntaxException(TokenUtil.VALUE);
+        if (step.target >= 0) {
+            if (step.keys.isEmpty() && step.indices.isEmpty() && type != Token.Type.LBrace && type != Token.Type.LBracket) {
+                //Keep scalars as raw text, so primitives can be read without creating a node
+                if (!TokenUtil.isValue(type)) throw TokenUtil.error(tokenizer, TokenUtil.VALUE);
+                result.found(step.target, tokenizer.popNextToken(), null);
+            } else {
+                val node = JsonNode.parse(tokenizer);
+                result.found(step.target, null, node);
+                resolve(step, node, result);
+            }
+            return result.count == paths.length;
+        }
+        if (type == Token.Type.LBrace && !step.keys.isEmpty()) {
+            return object(step, tokenizer, result);
+        }
+        if (type == Token.Type.LBracket && !step.indices.isEmpty()) {
+            return list(step, tokenizer, result);
+        }
+        TokenUtil.skipValue(tokenizer);
+        return false;
+    }
+
+    private boolean object(Step step, Tokenizer tokenizer, Result result) {
+        tokenizer.skipNextToken();
+        if (tokenizer.peekNextType() == Token.Type.RBrace) {
+            tokenizer.skipNextToken();
+            return false;
+        }
+        while (true) {
+            TokenUtil.expect(tokenizer, Token.Type.String, "string");
+            Step child = null;
+            if (tokenizer.isNextStringEscaped()) {
+                child = step.keys.get(tokenizer.popNextString());
+            } else {
+                for (val candidate: step.keys.values()) {
+                    if (tokenizer.nextTokenMatches(candidate.quoted)) {
+                        child = candidate;
+                        break;
+                    }
+                }
+                tokenizer.skipNextToken();
+            }
+            TokenUtil.expect(tokenizer, Token.Type.Colon, "':'");
+            tokenizer.skipNextToken();
+            if (child == null) {
+                TokenUtil.skipValue(tokenizer);
+            } else if (walk(child, tokenizer, result)) {
+                return true;
+            }
+            val type = tokenizer.peekNextType();
+            if (type != Token.Type.Comma && type != Token.Type.RBrace) throw TokenUtil.error(tokenizer, "',', '}'");
+            tokenizer.skipNextToken();
+            if (type == Token.Type.RBrace) return false;
+        }
+    }
+
+    private boolean list(Step step, Tokenizer tokenizer, Result result) {
+        tokenizer.skipNextToken();
+        if (tokenizer.peekNextType() == Token.Type.RBracket) {
+            tokenizer.skipNextToken();
+            return false;
+        }
+        for (int index = 0; ; index++) {
+            val child = step.indices.get(index);
+            if (child == null) {
+                TokenUtil.skipValue(tokenizer);
+            } else if (walk(child, tokenizer, result)) {
+                return true;
+            }
+            val type = tokenizer.peekNextType();
+            if (type != Token.Type.Comma && type != Token.Type.RBracket) throw TokenUtil.error(tokenizer, "',', ']'");
+            tokenizer.skipNextToken();
+            if (type == Token.Type.RBracket) return false;
+        }
+    }
+
+    /**
+     * Finds the paths that continue below a value that was itself a target, in the already built node.
+     */
+    private static void resolve(Step step, JsonNode node, Result result) {
+        if (node.isObject()) {
+            step.keys.forEach((key, child) -> {
+                if (node.containsKey(key)) found(child, node.get(key), result);
+            });
+        } else if (node.isList()) {
+            step.indices.forEach((index, child) -> {
+                if (node.containsIndex(index)) found(child, node.get(index), result);
+            });
+        }
+    }
+
+    private static void found(Step step, JsonNode node, Result result) {
+        if (step.target >= 0) result.found(step.target, null, node);
+        resolve(step, node, result);
+    }
+
+    /**
+     * @return The keys and indices of the path, as {@link String}s and {@link Integer}s.
+     */
+    private static Object[] split(String path) {
+        val parts = new ArrayList<Object>();
+        //Paths without the leading $ may start with a plain key
+        val normalized = path.startsWith("$") ? path.substring(1) : path.startsWith("[") ? path : "." + path;
+        val length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            val c = normalized.charAt(i);
+            if (c == '.') {
+                var end = i + 1;
+                while (end < length && normalized.charAt(end) != '.' && normalized.charAt(end) != '[') end++;
+                if (end == i + 1) throw malformed(path);
+                parts.add(normalized.substring(i + 1, end));
+                i = end;
+            } else if (c == '[') {
+                val close = normalized.indexOf(']', i);
+                if (close < 0) throw malformed(path);
+                val inner = normalized.substring(i + 1, close);
+                if (inner.length() >= 2 && (inner.charAt(0) == '\'' || inner.charAt(0) == '"') && inner.charAt(inner.length() - 1) == inner.charAt(0)) {
+                    parts.add(inner.substring(1, inner.length() - 1));
+                } else {
+                    try {
+                        val index = Integer.parseInt(inner);
+                        if (index < 0) throw malformed(path);
+                        parts.add(index);
+                    } catch (NumberFormatException e) {
+                        throw malformed(path);
+                    }
+                }
+                i = close + 1;
+            } else {
+                throw malformed(path);
+            }
+        }
+        return parts.toArray();
+    }
+
+    private static IllegalArgumentException malformed(String path) {
+        return new IllegalArgumentException("Malformed path: " + path);
+    }
+
+    /**
+     * The values found by an extractor, in the order of its paths.
+     */
+    public static final class Result {
+        private final Token[] tokens;
+        private final JsonNode[] nodes;
+        private int count = 0;
+
+        private Result(int size) {
+            tokens = new Token[size];
+            nodes = new JsonNode[size];
+        }
+
+        private void found(int index, Token token, JsonNode node) {
+            if (tokens[index] == null && nodes[index] == null) count++;
+            tokens[index] = token;
+            nodes[index] = node;
+        }
+
+        @Contract(pure = true)
+        public boolean isPresent(int index) {
+            return tokens[index] != null || nodes[index] != null;
+        }
+
+        /**
+         * @return The value of the path, or null if it was not found.
+         */
+        public @Nullable JsonNode get(int index) {
+            if (nodes[index] == null && tokens[index] != null) {
+                nodes[index] = toNode(tokens[index]);
+            }
+            return nodes[index];
+        }
+
+        /**
+         * @throws NoSuchElementException If the path was not found.
+         * @throws UnsupportedOperationException If the value is not a string.
+         */
+        public @NotNull String getString(int index) {
+            val token = tokens[index];
+            if (token != null && token.tokenType == Token.Type.String) return StringUtil.unquote(token.text);
+            return require(index).stringValue();
+        }
+
+        /**
+         * @throws NoSuchElementException If the path was not found.
+         * @throws UnsupportedOperationException If the value is not a number.
+         */
+        public long getLong(int index) {
+            val token = tokens[index];
+            if (token != null && token.tokenType == Token.Type.Int) {
+                try {
+                    return Long.parseLong(token.text);
+                } catch (NumberFormatException ignored) {
+                    //Fall back to the truncating conversion of the node
+                }
+            }
+            return require(index).longValue();
+        }
+
+        /**
+         * @throws NoSuchElementException If the path was not found.
+         * @throws UnsupportedOperationException If the value is not a number.
+         */
+        public double getDouble(int index) {
+            val token = tokens[index];
+            if (token != null && (token.tokenType == Token.Type.Int || token.tokenType == Token.Type.Float)) {
+                return NumberUtil.parseDouble(token.text);
+            }
+            return require(index).doubleValue();
+        }
+
+        /**
+         * @throws NoSuchElementException If the path was not found.
+         * @throws UnsupportedOperationException If the value is not a boolean.
+         */
+        public boolean getBoolean(int index) {
+            val token = tokens[index];
+            if (token != null && token.tokenType == Token.Type.True) return true;
+            if (token != null && token.tokenType == Token.Type.False) return false;
+            return require(index).boolValue();
+        }
+
+        private JsonNode require(int index) {
+            val node = get(index);
+            if (node == null) throw new NoSuchElementException("Path " + index + " was not found");
+            return node;
+        }
+
+        private static JsonNode toNode(Token token) {
+            switch (token.tokenType) {
+                case String:
+                    return StringNode.of(StringUtil.unquote(token.text));
+                case Int:
+                    return IntNode.of(token.text);
+                case Float:
+                    return FloatNode.of(token.text);
+                case True:
+                    return BoolNode.of(true);
+                case False:
+                    return BoolNode.of(false);
+                default:
+                    return NullNode.Null;
+            }
+        }
+    }
+}
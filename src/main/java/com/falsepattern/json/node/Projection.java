@@ -0,0 +1,183 @@
+package com.falsepattern.json.node;
+
+import com.falsepattern.json.parsing.InvalidSyntaxException;
+import com.falsepattern.json.parsing.ParserOptions;
+import com.falsepattern.json.parsing.TokenUtil;
+import com.falsepattern.json.parsing.token.Token;
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.NonNull;
+import lombok.val;
+import lombok.var;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A set of paths to keep when parsing a document, like {@code id}, {@code ts} and {@code payload.user.name}. Each path
+ * is a list of object keys separated by dots, and selects the whole value at its end. Arrays along a path are
+ * transparent: the path is applied to every object inside of them, and anything else in them is dropped.
+ * <p>
+ * Everything outside of the selected paths is skipped without creating any tokens or nodes for it, and is only checked
+ * for balanced brackets.
+ */
+public final class Projection {
+    private final Map<String, Child> children = new LinkedHashMap<>();
+    private boolean whole = false;
+
+    private static final class Child {
+        final String quoted;
+        final Projection projection = new Projection();
+
+        Child(String key) {
+            this.quoted = "\"" + key + "\"";
+        }
+    }
+
+    private Projection() {
+    }
+
+    /**
+     * @param paths Dot separated object keys. A path that is a prefix of another one selects the whole value, and
+     *              makes the longer path redundant.
+     */
+    public static @NotNull Projection of(@NotNull @NonNull String @NotNull ... paths) {
+        val root = new Projection();
+        for (val path: paths) {
+            if (path.isEmpty()) throw new IllegalArgumentException("Empty path");
+            root.add(path.split("\\.", -1), 0);
+        }
+        return root;
+    }
+
+    private void add(String[] keys, int index) {
+        //A parent that selects the whole value already covers this path
+        if (whole) return;
+        val key = keys[index];
+        var child = children.get(key);
+        if (child == null) {
+            child = new Child(key);
+            children.put(key, child);
+        }
+        if (index == keys.length - 1) {
+            child.projection.whole = true;
+            child.projection.children.clear();
+        } else {
+            child.projection.add(keys, index + 1);
+        }
+    }
+
+    /**
+     * Parses the next value from the tokenizer, keeping only the selected paths. Scalars at the top level have no
+     * paths, and are returned as they are.
+     * <p>
+     * Keeps the limits the tokenizer already has, or uses the {@link ParserOptions#DEFAULT default limits} if it has
+     * none.
+     */
+    public @NotNull JsonNode parse(@NotNull @NonNull Tokenizer tokenizer) throws InvalidSyntaxException {
+        return parse(tokenizer, ParserOptions.of(tokenizer));
+    }
+
+    /**
+     * See {@link #parse(Tokenizer)}. The length limits also apply to the skipped parts of the value.
+     */
+    public @NotNull JsonNode parse(@NotNull @NonNull Tokenizer tokenizer, @NotNull @NonNull ParserOptions options) throws InvalidSyntaxException {
+        tokenizer.setLimits(options);
+        val node = value(tokenizer, 0, options);
+        return node != null ? node : JsonNode.parse(tokenizer, options);
+    }
+
+    /**
+     * @param depth The number of arrays and objects the value is nested in.
+     * @return The projected object or list, or null if the next value is a scalar, which is left in the tokenizer.
+     */
+    private JsonNode value(Tokenizer tokenizer, int depth, ParserOptions options) {
+        val type = tokenizer.peekNextType();
+        if (type != Token.Type.LBrace && type != Token.Type.LBracket) return null;
+        if (depth >= options.maxDepth) throw TokenUtil.tooDeep(tokenizer, options.maxDepth);
+        return type == Token.Type.LBrace ? object(tokenizer, depth + 1, options) : list(tokenizer, depth + 1, options);
+    }
+
+    /**
+     * Parses a selected value in full, with only the depth that is left below its parent.
+     */
+    private static JsonNode whole(Tokenizer tokenizer, int depth, ParserOptions options) {
+        val type = tokenizer.peekNextType();
+        if ((type == Token.Type.LBrace || type == Token.Type.LBracket) && depth >= options.maxDepth) {
+            throw TokenUtil.tooDeep(tokenizer, options.maxDepth);
+        }
+        return JsonNode.parse(tokenizer, options.withMaxDepth(Math.max(1, options.maxDepth - depth)));
+    }
+
+    /**
+     * @param depth The number of arrays and objects the contents are nested in, including this one.
+     */
+    private ObjectNode object(Tokenizer tokenizer, int depth, ParserOptions options) {
+        tokenizer.skipNextToken();
+        val result = new ObjectNode();
+        result.keepInsertionOrder();
+        if (tokenizer.peekNextType() == Token.Type.RBrace) {
+            tokenizer.skipNextToken();
+            return result;
+        }
+        while (true) {
+            TokenUtil.expect(tokenizer, Token.Type.String, "string");
+            String key = null;
+            Projection child = null;
+            for (val entry: children.entrySet()) {
+                if (tokenizer.nextTokenMatches(entry.getValue().quoted)) {
+                    key = entry.getKey();
+                    child = entry.getValue().projection;
+                    break;
+                }
+            }
+            if (key == null && tokenizer.isNextStringEscaped()) {
+                key = tokenizer.popNextString();
+                val entry = children.get(key);
+                child = entry == null ? null : entry.projection;
+            } else {
+                tokenizer.skipNextToken();
+            }
+            TokenUtil.expect(tokenizer, Token.Type.Colon, "':'");
+            tokenizer.skipNextToken();
+            if (child == null) {
+                TokenUtil.skipValue(tokenizer, depth, options.maxDepth);
+            } else {
+                val node = child.whole ? whole(tokenizer, depth, options) : child.value(tokenizer, depth, options);
+                if (node == null) {
+                    TokenUtil.skipValue(tokenizer, depth, options.maxDepth);
+                } else {
+                    result.set(key, node);
+                }
+            }
+            val type = tokenizer.peekNextType();
+            if (type != Token.Type.Comma && type != Token.Type.RBrace) throw TokenUtil.error(tokenizer, "',', '}'");
+            tokenizer.skipNextToken();
+            if (type == Token.Type.RBrace) return result;
+        }
+    }
+
+    /**
+     * @param depth The number of arrays and objects the elements are nested in, including this one.
+     */
+    private ListNode list(Tokenizer tokenizer, int depth, ParserOptions options) {
+        tokenizer.skipNextToken();
+        val result = new ListNode();
+        if (tokenizer.peekNextType() == Token.Type.RBracket) {
+            tokenizer.skipNextToken();
+            return result;
+        }
+        while (true) {
+            val node = value(tokenizer, depth, options);
+            if (node == null) {
+                TokenUtil.skipValue(tokenizer, depth, options.maxDepth);
+            } else {
+                result.add(node);
+            }
+            val type = tokenizer.peekNextType();
+            if (type != Token.Type.Comma && type != Token.Type.RBracket) throw TokenUtil.error(tokenizer, "',', ']'");
+            tokenizer.skipNextToken();
+            if (type == Token.Type.RBracket) return result;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.falsepattern.json.node;
+
+import lombok.NonNull;
+import lombok.val;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares {@link StringNode}s for short string values that repeat across documents, like enum names and status codes.
+ * Pass it to {@link JsonNode#parse(com.falsepattern.json.parsing.token.Tokenizer,
+ * com.falsepattern.json.parsing.ParserOptions, StringNodeCache)} to have every matching value in the parsed trees
+ * point to the same node.
+ * <p>
+ * The cache has a fixed size and never grows: every value has a single slot, and a new value replaces whatever was in
+ * its slot before. Values longer than {@link #MAX_LENGTH} are never cached, and neither are values with escape
+ * sequences, which stay lazily decoded.
+ * <p>
+ * Caches are thread safe without locking. Concurrent parses may replace each other's entries, which only costs a miss.
+ * The slots are atomic references, so a node read from another thread's slot is always fully built.
+ */
+public final class StringNodeCache {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int MAX_LENGTH = 32;
+
+    private final AtomicReferenceArray<StringNode> nodes;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public StringNodeCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The number of slots, rounded up to a power of two.
+     */
+    public StringNodeCache(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("Capacity must be between 1 and 2^30, got " + capacity);
+        val size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        nodes = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * @return The cached node for the value, or a new one, which is then cached if the value is short enough.
+     */
+    public @NotNull StringNode of(@NotNull @NonNull String value) {
+        if (value.isEmpty() || value.length() > MAX_LENGTH) return StringNode.of(value);
+        val hash = value.hashCode();
+        val slot = (hash ^ hash >>> 16) & mask;
+        val candidate = nodes.get(slot);
+        if (candidate != null && candidate.stringValue().equals(value)) {
+            hits.increment();
+            return candidate;
+        }
+        misses.increment();
+        val node = StringNode.of(value);
+        //Release store, the volatile read in get makes the fields of the node visible to the reader
+        nodes.lazySet(slot, node);
+        return node;
+    }
+
+    /**
+     * @return The number of lookups that returned a cached node so far.
+     */
+    @Contract(pure = true)
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of lookups of cacheable values that had to create a new node so far.
+     */
+    @Contract(pure = true)
+    public long misses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,145 @@
+package com.falsepattern.json.node;
+
+import com.falsepattern.json.parsing.JsonHandler;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link JsonHandler} that assembles the parsed events into a {@link JsonNode} tree.
+ */
+class TreeBuilder implements JsonHandler {
+    private final List<JsonNode> containers = new ArrayList<>();
+    private final Consumer<JsonNode> sink;
+    private final StringNodeCache cache;
+    private String key;
+    private JsonNode result;
+
+    TreeBuilder() {
+        this(null);
+    }
+
+    /**
+     * @param sink Receives every top level value as soon as it is complete.
+     */
+    TreeBuilder(Consumer<JsonNode> sink) {
+        this(sink, null);
+    }
+
+    /**
+     * @param cache Shares the nodes of short string values, or null to create new nodes for all of them.
+     */
+    TreeBuilder(Consumer<JsonNode> sink, StringNodeCache cache) {
+        this.sink = sink;
+        this.cache = cache;
+    }
+
+    @NotNull JsonNode result() {
+        return result;
+    }
+
+    @Override
+    public boolean startObject() {
+        val node = new ObjectNode();
+        node.keepInsertionOrder();
+        add(node);
+        containers.add(node);
+        return true;
+    }
+
+    @Override
+    public boolean key(@NotNull String key) {
+        this.key = key;
+        return true;
+    }
+
+    @Override
+    public boolean endObject() {
+        return end();
+    }
+
+    @Override
+    public boolean startArray() {
+        val node = new ListNode();
+        add(node);
+        containers.add(node);
+        return true;
+    }
+
+    @Override
+    public boolean endArray() {
+        return end();
+    }
+
+    @Override
+    public boolean value(long value) {
+        return add(IntNode.of(value));
+    }
+
+    @Override
+    public boolean value(double value) {
+        return add(FloatNode.of(value));
+    }
+
+    @Override
+    public boolean value(@NotNull BigInteger value) {
+        return add(IntNode.of(value));
+    }
+
+    @Override
+    public boolean value(@NotNull CharSequence value) {
+        if (cache != null && value instanceof String) {
+            return add(cache.of((String) value));
+        }
+        return add(StringNode.of(value));
+    }
+
+    @Override
+    public boolean value(boolean value) {
+        return add(BoolNode.of(value));
+    }
+
+    @Override
+    public boolean nullValue() {
+        return add(NullNode.Null);
+    }
+
+    @Override
+    public boolean intLiteral(@NotNull String literal) {
+        return add(IntNode.of(literal));
+    }
+
+    @Override
+    public boolean floatLiteral(@NotNull String literal) {
+        return add(FloatNode.of(literal));
+    }
+
+    private boolean end() {
+        containers.remove(containers.size() - 1);
+        if (containers.isEmpty() && sink != null) {
+            sink.accept(result);
+        }
+        return true;
+    }
+
+    private boolean add(JsonNode node) {
+        if (containers.isEmpty()) {
+            result = node;
+            if (sink != null && !node.isObject() && !node.isList()) {
+                sink.accept(node);
+            }
+            return true;
+        }
+        val parent = containers.get(containers.size() - 1);
+        if (parent.isObject()) {
+            parent.set(key, node);
+        } else {
+            parent.add(node);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,139 @@
+package com.falsepattern.json.node;
+
+import lombok.val;
+import lombok.var;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Encodes the text of node trees as UTF-8 straight into a byte buffer, which is handed to the destination whenever it
+ * fills up. ASCII text, which is most of the text of typical documents, is copied into the buffer in a tight loop
+ * without going through a {@link java.nio.charset.CharsetEncoder}.
+ * <p>
+ * Each thread keeps one buffer around between writes, so serializing does not allocate anything for the output.
+ * Unpaired surrogates are written as {@code ?}, like {@link String#getBytes(java.nio.charset.Charset)} does.
+ */
+abstract class Utf8JsonWriter extends JsonWriter {
+    private static final int BUFFER_SIZE = 8192;
+    //The buffer of each thread, null while a write on that thread is using it
+    private static final ThreadLocal<byte[][]> POOL = ThreadLocal.withInitial(() -> new byte[1][]);
+
+    private byte[] buffer;
+    private int position = 0;
+
+    /**
+     * @param indentWidth The indent of pretty printed output, or -1 for compact output.
+     */
+    static void write(JsonNode node, OutputStream out, int indentWidth) throws IOException {
+        new Utf8JsonWriter() {
+            @Override
+            void drain(byte[] buffer, int length) throws IOException {
+                out.write(buffer, 0, length);
+            }
+        }.run(node, indentWidth);
+    }
+
+    /**
+     * @param indentWidth The indent of pretty printed output, or -1 for compact output.
+     */
+    static void write(JsonNode node, WritableByteChannel channel, int indentWidth) throws IOException {
+        new Utf8JsonWriter() {
+            @Override
+            void drain(byte[] buffer, int length) throws IOException {
+                val wrapped = ByteBuffer.wrap(buffer, 0, length);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+            }
+        }.run(node, indentWidth);
+    }
+
+    /**
+     * Hands the first length bytes of the buffer to the destination.
+     */
+    abstract void drain(byte[] buffer, int length) throws IOException;
+
+    final void run(JsonNode node, int indentWidth) throws IOException {
+        if (indentWidth >= 0) pretty(indentWidth);
+        val slot = POOL.get();
+        //Nested writes on the same thread, for example from inside of an output stream, get a buffer of their own
+        buffer = slot[0] != null ? slot[0] : new byte[BUFFER_SIZE];
+        slot[0] = null;
+        try {
+            value(node);
+            flush();
+        } finally {
+            slot[0] = buffer;
+            buffer = null;
+        }
+    }
+
+    private void flush() throws IOException {
+        if (position > 0) drain(buffer, position);
+        position = 0;
+    }
+
+    @Override
+    void write(char c) throws IOException {
+        if (c < 0x80) {
+            if (position == buffer.length) flush();
+            buffer[position++] = (byte) c;
+        } else {
+            //A single char can't hold a surrogate pair
+            encode(Character.isSurrogate(c) ? '?' : c);
+        }
+    }
+
+    @Override
+    void write(String text, int start, int end) throws IOException {
+        int i = start;
+        while (i < end) {
+            if (position == buffer.length) flush();
+            val stop = Math.min(end, i + buffer.length - position);
+            val bytes = buffer;
+            var p = position;
+            while (i < stop) {
+                val c = text.charAt(i);
+                if (c >= 0x80) break;
+                bytes[p++] = (byte) c;
+                i++;
+            }
+            position = p;
+            if (i == stop) continue;
+            val c = text.charAt(i++);
+            if (!Character.isSurrogate(c)) {
+                encode(c);
+            } else if (Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(text.charAt(i))) {
+                encode(Character.toCodePoint(c, text.charAt(i++)));
+            } else {
+                encode('?');
+            }
+        }
+    }
+
+    /**
+     * Writes a code point that is not a surrogate.
+     */
+    private void encode(int codePoint) throws IOException {
+        if (buffer.length - position < 4) flush();
+        val bytes = buffer;
+        if (codePoint < 0x80) {
+            bytes[position++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            bytes[position++] = (byte) (0xC0 | codePoint >>> 6);
+            bytes[position++] = (byte) (0x80 | codePoint & 0x3F);
+        } else if (codePoint < 0x10000) {
+            bytes[position++] = (byte) (0xE0 | codePoint >>> 12);
+            bytes[position++] = (byte) (0x80 | codePoint >>> 6 & 0x3F);
+            bytes[position++] = (byte) (0x80 | codePoint & 0x3F);
+        } else {
+            bytes[position++] = (byte) (0xF0 | codePoint >>> 18);
+            bytes[position++] = (byte) (0x80 | codePoint >>> 12 & 0x3F);
+            bytes[position++] = (byte) (0x80 | codePoint >>> 6 & 0x3F);
+            bytes[position++] = (byte) (0x80 | codePoint & 0x3F);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.falsepattern.json.node.JsonNode;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
@@ -21,6 +22,28 @@ public interface INode extends Cloneable{
     @Contract(pure = true)
     @NotNull String prettyPrint(int indentDepth);
 
+    /**
+     * Writes the compact JSON representation of this node into the output, without building it as a string first.
+     * The default implementation appends {@link #toString()}, so implementations outside of this library keep working.
+     * @param out The output to append to.
+     * @throws IOException If the output fails.
+     */
+    default void writeTo(@NotNull Appendable out) throws IOException {
+        out.append(toString());
+    }
+
+    /**
+     * Writes the same text as {@link #prettyPrint(int)} into the output, without building it as a string first.
+     * The default implementation appends {@link #prettyPrint(int)}, so implementations outside of this library keep
+     * working.
+     * @param out The output to append to.
+     * @param indentDepth The number of spaces to indent the output.
+     * @throws IOException If the output fails.
+     */
+    default void prettyPrintTo(@NotNull Appendable out, int indentDepth) throws IOException {
+        out.append(prettyPrint(indentDepth));
+    }
+
 
     /**
      * @return True if this node is an {@link com.falsepattern.json.node.ObjectNode}, false otherwise.
@@ -0,0 +1,54 @@
+package com.falsepattern.json.parsing;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A string value that still contains escape sequences, which are only resolved the first time its contents are read.
+ * The parsers pass strings with backslashes to {@link JsonHandler#value(CharSequence)} in this form, so handlers that
+ * keep the value for later never pay for unescaping strings that are not read.
+ */
+public final class EscapedString implements CharSequence {
+    private final String raw;
+    private String value;
+
+    /**
+     * @param raw The contents of a string literal, without the quotes.
+     */
+    public EscapedString(@NotNull @NonNull String raw) {
+        this.raw = raw;
+    }
+
+    /**
+     * @return The contents of the string literal, with the escape sequences as they appear in the document.
+     */
+    @Contract(pure = true)
+    public @NotNull String raw() {
+        return raw;
+    }
+
+    @Override
+    public int length() {
+        return toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public @NotNull CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * @return The string with its escape sequences resolved.
+     */
+    @Override
+    public @NotNull String toString() {
+        //Lazy initialization
+        return value == null ? value = StringUtil.unescape(raw) : value;
+    }
+}
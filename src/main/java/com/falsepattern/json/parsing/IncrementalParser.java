@@ -0,0 +1,84 @@
+package com.falsepattern.json.parsing;
+
+import com.falsepattern.json.parsing.token.ChunkReader;
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Non-blocking parser for UTF-8 input that arrives in arbitrary chunks, for example from a selector based network
+ * layer. Every chunk is parsed as far as possible as soon as it is fed, and the events are reported to the
+ * {@link JsonHandler} on the calling thread. The parser keeps its state between chunks, so a chunk may end anywhere,
+ * including in the middle of a string, an escape sequence, a number or a multibyte character.
+ * <p>
+ * Any number of top level values may follow each other in the input.
+ */
+public class IncrementalParser {
+    private final JsonHandler handler;
+    private final ChunkReader source = new ChunkReader();
+    private final PushParser parser;
+    private boolean stopped = false;
+
+    /**
+     * Uses the {@link ParserOptions#DEFAULT default limits}.
+     */
+    public IncrementalParser(@NotNull @NonNull JsonHandler handler) {
+        this(handler, ParserOptions.DEFAULT);
+    }
+
+    /**
+     * @param options The limits to enforce. The document length limit applies to all top level values together.
+     */
+    public IncrementalParser(@NotNull @NonNull JsonHandler handler, @NotNull @NonNull ParserOptions options) {
+        this.handler = handler;
+        this.parser = new PushParser(new Tokenizer(source), options);
+    }
+
+    /**
+     * Parses the remaining bytes of the chunk. The chunk is fully consumed, and not retained.
+     * @return False if the handler stopped the parser, in which case any further input is ignored.
+     * @throws IllegalStateException If {@link #end()} was already called.
+     */
+    public boolean feed(@NotNull @NonNull ByteBuffer chunk) throws InvalidSyntaxException {
+        if (stopped) return false;
+        source.feed(chunk);
+        return advance();
+    }
+
+    /**
+     * See {@link #feed(ByteBuffer)}.
+     */
+    public boolean feed(byte @NotNull @NonNull [] bytes, int offset, int length) throws InvalidSyntaxException {
+        return feed(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Marks the end of the input, and parses whatever was still waiting for more input, like a trailing number.
+     * @return False if the handler stopped the parser.
+     * @throws InvalidSyntaxException If the input ended in the middle of a value.
+     */
+    public boolean end() throws InvalidSyntaxException {
+        source.close();
+        if (stopped) return false;
+        return advance();
+    }
+
+    private boolean advance() {
+        while (true) {
+            switch (parser.run(handler)) {
+                case Complete:
+                    continue;
+                case Stopped:
+                    stopped = true;
+                    return false;
+                case Starved:
+                    return true;
+                case End:
+                    if (parser.isInsideValue()) throw parser.unexpectedEnd();
+                    return true;
+            }
+        }
+    }
+}
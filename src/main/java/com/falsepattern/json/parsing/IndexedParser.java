@@ -0,0 +1,431 @@
+package com.falsepattern.json.parsing;
+
+import com.falsepattern.json.parsing.PushParser.Scope;
+import com.falsepattern.json.parsing.token.Token;
+import lombok.NonNull;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Two stage parser for large in-memory UTF-8 documents. The first stage builds a {@link StructuralIndex} of the whole
+ * input, processing it 8 bytes at a time. The second stage walks that index like {@link PushParser} walks the tokens,
+ * jumping straight from one structural position to the next instead of looking at every byte.
+ * <p>
+ * Accepts exactly the same documents as the {@link PushParser}, but reports lexical errors as an
+ * {@link InvalidSyntaxException} for the offending number or literal, and columns in bytes instead of chars.
+ */
+public class IndexedParser {
+    private final byte[] input;
+    private final int offset;
+    private final int end;
+    private final StructuralIndex index;
+    private final ParserOptions options;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private int next = 0;
+    //Length of the number or literal last found by typeAt
+    private int atomLength;
+    private Scope[] stack = new Scope[32];
+    private int depth = 0;
+
+    public IndexedParser(byte @NotNull @NonNull [] input) {
+        this(input, 0, input.length);
+    }
+
+    /**
+     * Uses the {@link ParserOptions#DEFAULT default limits}.
+     * @param offset The index of the first byte of the json text.
+     * @param length The number of bytes the json text spans.
+     */
+    public IndexedParser(byte @NotNull @NonNull [] input, int offset, int length) {
+        this(input, offset, length, ParserOptions.DEFAULT);
+    }
+
+    /**
+     * See {@link #IndexedParser(byte[], int, int)}. The length limits of the options count bytes instead of chars. The
+     * document length is checked before the input is indexed.
+     */
+    public IndexedParser(byte @NotNull @NonNull [] input, int offset, int length, @NotNull @NonNull ParserOptions options) {
+        if (offset < 0 || length < 0 || offset + length > input.length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") out of bounds for length " + input.length);
+        }
+        this.input = input;
+        this.offset = offset;
+        this.end = offset + length;
+        this.options = options;
+        if (length > options.maxDocumentLength) {
+            throw limitExceeded("Document", options.maxDocumentLength, (int) (offset + options.maxDocumentLength));
+        }
+        this.index = StructuralIndex.build(input, offset, length);
+        stack[0] = Scope.Document;
+    }
+
+    /**
+     * Parses the next value of the input, and reports it to the handler.
+     * @return False if the handler stopped the parser early, true if the whole value was parsed.
+     * @throws IllegalArgumentException If a string is not valid UTF-8.
+     */
+    public boolean parse(@NotNull @NonNull JsonHandler handler) throws InvalidSyntaxException {
+        while (true) {
+            if (next == index.count) throw new InvalidSyntaxException(stack[depth].expected);
+            val position = index.positions[next];
+            val type = typeAt(position);
+            switch (stack[depth]) {
+                case Document:
+                    if (!value(handler, type, position, Scope.Document)) return false;
+                    break;
+                case ArrayFirst:
+                    if (type == Token.Type.RBracket) {
+                        if (!close(handler, false)) return false;
+                        break;
+                    }
+                    if (!value(handler, type, position, Scope.ArrayNext)) return false;
+                    break;
+                case ArrayValue:
+                    if (!value(handler, type, position, Scope.ArrayNext)) return false;
+                    break;
+                case ArrayNext:
+                    if (type == Token.Type.Comma) {
+                        next++;
+                        stack[depth] = Scope.ArrayValue;
+                    } else if (type == Token.Type.RBracket) {
+                        if (!close(handler, false)) return false;
+                    } else {
+                        throw unexpected(type, position);
+                    }
+                    break;
+                case ObjectFirst:
+                case ObjectKey:
+                    //Only an empty object may close before its first key
+                    if (type == Token.Type.RBrace && stack[depth] == Scope.ObjectFirst) {
+                        if (!close(handler, true)) return false;
+                        break;
+                    }
+                    if (type != Token.Type.String) throw unexpected(type, position);
+                    stack[depth] = Scope.ObjectColon;
+                    if (!handler.key(key(position))) return false;
+                    break;
+                case ObjectColon:
+                    if (type != Token.Type.Colon) throw unexpected(type, position);
+                    next++;
+                    stack[depth] = Scope.ObjectValue;
+                    break;
+                case ObjectValue:
+                    if (!value(handler, type, position, Scope.ObjectNext)) return false;
+                    break;
+                case ObjectNext:
+                    if (type == Token.Type.Comma) {
+                        next++;
+                        stack[depth] = Scope.ObjectKey;
+                    } else if (type == Token.Type.RBrace) {
+                        if (!close(handler, true)) return false;
+                    } else {
+                        throw unexpected(type, position);
+                    }
+                    break;
+            }
+            if (depth == 0) return true;
+        }
+    }
+
+    private boolean value(JsonHandler handler, Token.Type type, int position, Scope following) {
+        if (type == null || !TokenUtil.isValue(type)) throw unexpected(type, position);
+        stack[depth] = following;
+        switch (type) {
+            case String:
+                return handler.value(string(position));
+            case Int:
+                next++;
+                checkNumber(position);
+                return handler.intLiteral(ascii(position, position + atomLength));
+            case Float:
+                next++;
+                checkNumber(position);
+                return handler.floatLiteral(ascii(position, position + atomLength));
+            case True:
+                next++;
+                return handler.value(true);
+            case False:
+                next++;
+                return handler.value(false);
+            case Null:
+                next++;
+                return handler.nullValue();
+            case LBrace:
+                next++;
+                push(Scope.ObjectFirst);
+                return handler.startObject();
+            default:
+                next++;
+                push(Scope.ArrayFirst);
+                return handler.startArray();
+        }
+    }
+
+    private boolean close(JsonHandler handler, boolean object) {
+        next++;
+        depth--;
+        return object ? handler.endObject() : handler.endArray();
+    }
+
+    private void push(Scope scope) {
+        if (depth == options.maxDepth) {
+            //The opening bracket was already passed
+            val position = index.positions[next - 1];
+            val location = location(position);
+            throw new InvalidSyntaxException("Nesting is deeper than the limit of " + options.maxDepth, location[0], location[1]);
+        }
+        if (++depth == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[depth] = scope;
+    }
+
+    /**
+     * @return The type of the token at the position, or null if it is not a valid token.
+     */
+    private Token.Type typeAt(int position) {
+        final Token.Type type;
+        switch (input[position]) {
+            case '{': return Token.Type.LBrace;
+            case '}': return Token.Type.RBrace;
+            case '[': return Token.Type.LBracket;
+            case ']': return Token.Type.RBracket;
+            case ':': return Token.Type.Colon;
+            case ',': return Token.Type.Comma;
+            case '"': return Token.Type.String;
+            case 't': type = literal(position, "true", Token.Type.True); break;
+            case 'f': type = literal(position, "false", Token.Type.False); break;
+            case 'n': type = literal(position, "null", Token.Type.Null); break;
+            default: type = number(position); break;
+        }
+        //Like with the tokenizer, whatever directly follows a top level value is never read
+        if (type != null && stack[depth] != Scope.Document && position + atomLength != atomEnd(position)) return null;
+        return type;
+    }
+
+    private Token.Type literal(int position, String literal, Token.Type type) {
+        val length = literal.length();
+        if (end - position < length) return null;
+        for (int i = 1; i < length; i++) {
+            if (input[position + i] != literal.charAt(i)) return null;
+        }
+        atomLength = length;
+        return type;
+    }
+
+    /**
+     * Mirrors {@code -?(?:0|[1-9][0-9]*)} optionally followed by either a fraction or an exponent, but never both,
+     * exactly like the Float and Int patterns in {@link Token.Type}.
+     */
+    private Token.Type number(int position) {
+        int i = position;
+        if (i < end && input[i] == '-') i++;
+        if (i == end || !isDigit(input[i])) return null;
+        if (input[i++] != '0') {
+            while (i < end && isDigit(input[i])) i++;
+        }
+        atomLength = i - position;
+        if (i + 1 < end && input[i] == '.' && isDigit(input[i + 1])) {
+            i += 2;
+            while (i < end && isDigit(input[i])) i++;
+            atomLength = i - position;
+            return Token.Type.Float;
+        }
+        if (i < end && (input[i] == 'e' || input[i] == 'E')) {
+            i++;
+            if (i < end && (input[i] == '+' || input[i] == '-')) i++;
+            if (i < end && isDigit(input[i])) {
+                if (input[i++] != '0') {
+                    while (i < end && isDigit(input[i])) i++;
+                }
+                atomLength = i - position;
+                return Token.Type.Float;
+            }
+        }
+        return Token.Type.Int;
+    }
+
+    /**
+     * @return The end of the number or literal starting at the position, which is wherever the index would start the
+     * next entry.
+     */
+    private int atomEnd(int position) {
+        int i = position + 1;
+        while (i < end) {
+            switch (input[i]) {
+                case '{':
+                case '}':
+                case '[':
+                case ']':
+                case ':':
+                case ',':
+                case '"':
+                case ' ':
+                case '\t':
+                case '\r':
+                case '\n':
+                    return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Like {@link #string(int)}, but plain ascii keys are taken from the key table, if there is one.
+     */
+    private String key(int position) {
+        val table = options.keyTable;
+        if (table != null && next + 1 < index.count) {
+            val start = position + 1;
+            val close = index.positions[next + 1];
+            if (close - start <= KeyTable.MAX_KEY_LENGTH && close - start <= options.maxStringLength) {
+                boolean plain = true;
+                for (int i = start; i < close; i++) {
+                    val c = input[i];
+                    if (c < 0x20 || c == '\\') {
+                        //Also true for every non-ascii byte
+                        plain = false;
+                        break;
+                    }
+                }
+                if (plain) {
+                    next += 2;
+                    return table.intern(input, start, close - start);
+                }
+            }
+        }
+        return string(position).toString();
+    }
+
+    /**
+     * Decodes the string literal whose opening quote is at the position, and moves past its closing quote.
+     * @return The string, or an {@link EscapedString} if it has valid escape sequences.
+     */
+    private CharSequence string(int position) {
+        if (next + 1 == index.count) throw new InvalidSyntaxException("'\"'");
+        val close = index.positions[next + 1];
+        next += 2;
+        val start = position + 1;
+        if (close - start > options.maxStringLength) throw limitExceeded("String", options.maxStringLength, position);
+        boolean ascii = true;
+        boolean escaped = false;
+        boolean badEscape = false;
+        for (int i = start; i < close; i++) {
+            val c = input[i];
+            if (c < 0) {
+                ascii = false;
+            } else if (c == '\\') {
+                escaped = true;
+                val escape = escapeLength(i, close);
+                if (escape == 1) badEscape = true;
+                i += escape - 1;
+            } else if (c < 0x20 && c != '\r' && c != '\n') {
+                throw error("string", Token.Type.String, position, close + 1);
+            }
+        }
+        String text;
+        if (ascii) {
+            text = ascii(start, close);
+        } else {
+            try {
+                text = decoder.decode(ByteBuffer.wrap(input, start, close - start)).toString();
+            } catch (CharacterCodingException e) {
+                throw new IllegalArgumentException("Failed to parse JSON! Malformed UTF-8 input.", e);
+            }
+        }
+        if (!escaped) return text;
+        //Malformed escapes are resolved right away, so that they fail here like with the tokenizer
+        return badEscape ? StringUtil.unescape(text) : new EscapedString(text);
+    }
+
+    /**
+     * @return The length of the escape sequence starting at the backslash, or 1 if it's not a valid one.
+     */
+    private int escapeLength(int backslash, int close) {
+        if (backslash + 1 == close) return 1;
+        switch (input[backslash + 1]) {
+            case '"':
+            case '\\':
+            case '/':
+            case 'b':
+            case 'f':
+            case 'n':
+            case 'r':
+            case 't':
+                return 2;
+            case 'u':
+                if (backslash + 5 < close &&
+                    isHexDigit(input[backslash + 2]) &&
+                    isHexDigit(input[backslash + 3]) &&
+                    isHexDigit(input[backslash + 4]) &&
+                    isHexDigit(input[backslash + 5])) {
+                    return 6;
+                }
+                return 1;
+            default:
+                return 1;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private String ascii(int start, int end) {
+        //The deprecated constructor is the only one that skips the decoder entirely
+        return new String(input, 0, start, end - start);
+    }
+
+    private InvalidSyntaxException unexpected(Token.Type type, int position) {
+        final int tokenEnd;
+        if (type == Token.Type.String) {
+            tokenEnd = next + 1 < index.count ? index.positions[next + 1] + 1 : end;
+        } else if (type == null || TokenUtil.isValue(type) && type != Token.Type.LBrace && type != Token.Type.LBracket) {
+            tokenEnd = atomEnd(position);
+        } else {
+            tokenEnd = position + 1;
+        }
+        return error(stack[depth].expected, type, position, tokenEnd);
+    }
+
+    private InvalidSyntaxException error(String expected, Token.Type type, int position, int tokenEnd) {
+        val location = location(position);
+        return new InvalidSyntaxException(expected, new Token(type, new String(input, position, tokenEnd - position, StandardCharsets.UTF_8), location[0], location[1]));
+    }
+
+    private void checkNumber(int position) {
+        if (atomLength > options.maxNumberLength) throw limitExceeded("Number", options.maxNumberLength, position);
+    }
+
+    private InvalidSyntaxException limitExceeded(String what, long max, int position) {
+        val location = location(position);
+        return new InvalidSyntaxException(what + " is longer than the limit of " + max + " bytes", location[0], location[1]);
+    }
+
+    /**
+     * @return The line and column of the position.
+     */
+    private int[] location(int position) {
+        int line = 0;
+        int lineStart = offset;
+        for (int i = offset; i < position; i++) {
+            if (input[i] == '\n') {
+                line++;
+                lineStart = i + 1;
+            }
+        }
+        return new int[]{line, position - lineStart};
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHexDigit(byte c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
@@ -8,4 +8,16 @@ public class InvalidSyntaxException extends RuntimeException {
               "Expected: " + expected + "\n" +
               "Got:      '" + token.text + "'");
     }
+
+    /**
+     * For errors that are not about a specific token, like exceeded {@link ParserOptions limits}.
+     */
+    public InvalidSyntaxException(String message, int line, int col) {
+        super("Invalid syntax at line: " + line + ", column: " + col + ".\n" + message);
+    }
+
+    public InvalidSyntaxException(String expected) {
+        super("Unexpected end of input.\n" +
+              "Expected: " + expected);
+    }
 }
@@ -0,0 +1,70 @@
+package com.falsepattern.json.parsing;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+
+/**
+ * Receives the events of a {@link PushParser} as it scans through a document. Every callback returns whether
+ * parsing should continue; returning false stops the parser right after the callback.
+ */
+public interface JsonHandler {
+    /**
+     * Called when an object is opened. Its entries follow as {@link #key(String)} and value pairs.
+     */
+    boolean startObject();
+
+    /**
+     * Called for each key of the current object, right before its value.
+     * @param key The key, with escape sequences resolved.
+     */
+    boolean key(@NotNull String key);
+
+    boolean endObject();
+
+    boolean startArray();
+
+    boolean endArray();
+
+    boolean value(long value);
+
+    boolean value(double value);
+
+    /**
+     * @param value The string, with escape sequences resolved.
+     */
+    boolean value(@NotNull CharSequence value);
+
+    boolean value(boolean value);
+
+    boolean nullValue();
+
+    /**
+     * Called for integers that do not fit into a {@code long}. Forwards to {@link #value(double)} by default.
+     */
+    default boolean value(@NotNull BigInteger value) {
+        return value(value.doubleValue());
+    }
+
+    /**
+     * Receives integer literals as they appear in the document. By default, they are forwarded to
+     * {@link #value(long)}, or to {@link #value(BigInteger)} if they do not fit into a {@code long}.
+     */
+    default boolean intLiteral(@NotNull String literal) {
+        final long value;
+        try {
+            value = Long.parseLong(literal);
+        } catch (NumberFormatException e) {
+            return value(new BigInteger(literal));
+        }
+        return value(value);
+    }
+
+    /**
+     * Receives floating point literals as they appear in the document. By default, they are forwarded to
+     * {@link #value(double)}. Override this to keep the exact decimal value.
+     */
+    default boolean floatLiteral(@NotNull String literal) {
+        return value(NumberUtil.parseDouble(literal));
+    }
+}
@@ -0,0 +1,306 @@
+package com.falsepattern.json.parsing;
+
+import com.falsepattern.json.parsing.token.Token;
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.NonNull;
+import lombok.val;
+import lombok.var;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Pull parser over the token stream, for reading individual values out of a document without building a json tree.
+ * Commas and colons are consumed implicitly, and checked against the structure read so far. Any number of values
+ * may follow each other at the top level.
+ * <p>
+ * Methods that read or skip a value throw an {@link InvalidSyntaxException} if the next token is not what they
+ * expect, and an {@link IllegalStateException} if they are called where an object key is expected.
+ */
+public class JsonReader {
+    private enum Scope {
+        Document,
+        EmptyArray,
+        Array,
+        EmptyObject,
+        Object,
+        Name
+    }
+
+    private final Tokenizer tokenizer;
+    private final int maxDepth;
+    private final KeyTable keyTable;
+    private Scope[] stack = new Scope[32];
+    private int depth = 0;
+    private boolean peeked = false;
+
+    /**
+     * Keeps the limits the tokenizer already has, or uses the {@link ParserOptions#DEFAULT default limits} if it has
+     * none. See {@link ParserOptions#of(Tokenizer)}.
+     */
+    public JsonReader(@NotNull @NonNull Tokenizer tokenizer) {
+        this(tokenizer, ParserOptions.of(tokenizer));
+    }
+
+    /**
+     * @param options The limits to enforce, and the table to take object keys from. The length limits are applied to
+     *                the tokenizer.
+     */
+    public JsonReader(@NotNull @NonNull Tokenizer tokenizer, @NotNull @NonNull ParserOptions options) {
+        this.tokenizer = tokenizer;
+        this.maxDepth = options.maxDepth;
+        this.keyTable = options.keyTable;
+        tokenizer.setLimits(options);
+        stack[0] = Scope.Document;
+    }
+
+    public JsonReader(@NotNull @NonNull CharSequence text) {
+        this(new Tokenizer(text), ParserOptions.DEFAULT);
+    }
+
+    public JsonReader(@NotNull @NonNull Reader reader) {
+        this(new Tokenizer(reader), ParserOptions.DEFAULT);
+    }
+
+    /**
+     * @return The type of the next key, value or closing bracket, or null if the input is exhausted. Never a
+     * {@link Token.Type#Comma} or {@link Token.Type#Colon}.
+     */
+    public @Nullable Token.Type peek() throws InvalidSyntaxException {
+        var type = tokenizer.peekNextType();
+        if (peeked) return type;
+        switch (stack[depth]) {
+            case Array:
+                if (type == Token.Type.Comma) {
+                    tokenizer.skipNextToken();
+                    type = expectValue();
+                } else if (type != Token.Type.RBracket) {
+                    throw error("',', ']'");
+                }
+                break;
+            case Object:
+                if (type == Token.Type.Comma) {
+                    tokenizer.skipNextToken();
+                    type = tokenizer.peekNextType();
+                    if (type != Token.Type.String) throw error("string");
+                } else if (type != Token.Type.RBrace) {
+                    throw error("',', '}'");
+                }
+                break;
+            case EmptyArray:
+                if (type != Token.Type.RBracket) expectValue();
+                break;
+            case EmptyObject:
+                if (type != Token.Type.String && type != Token.Type.RBrace) throw error("string, '}'");
+                break;
+            case Name:
+                expectValue();
+                break;
+            case Document:
+                if (type != null) expectValue();
+                break;
+        }
+        peeked = true;
+        return type;
+    }
+
+    /**
+     * @return True if the current array or object has more elements, or if there is more input at the top level.
+     */
+    public boolean hasNext() throws InvalidSyntaxException {
+        val type = peek();
+        return type != null && type != Token.Type.RBrace && type != Token.Type.RBracket;
+    }
+
+    /**
+     * Reads the next token, whatever it is. Opening and closing brackets returned by this method enter and leave
+     * arrays and objects just like {@link #beginArray()} and friends do, and a key returned in an object has to be
+     * followed by its value.
+     * @return The next token, or null if the input is exhausted.
+     */
+    public @Nullable Token nextToken() throws InvalidSyntaxException {
+        val type = peek();
+        if (type == null) return null;
+        switch (type) {
+            case LBrace:
+                beginValue();
+                push(Scope.EmptyObject);
+                break;
+            case LBracket:
+                beginValue();
+                push(Scope.EmptyArray);
+                break;
+            case RBrace:
+            case RBracket:
+                depth--;
+                peeked = false;
+                break;
+            case String:
+                if (stack[depth] == Scope.EmptyObject || stack[depth] == Scope.Object) {
+                    val name = tokenizer.popNextToken();
+                    readColon();
+                    return name;
+                }
+                beginValue();
+                break;
+            default:
+                beginValue();
+                break;
+        }
+        return tokenizer.popNextToken();
+    }
+
+    public void beginObject() throws InvalidSyntaxException {
+        expect(Token.Type.LBrace, "'{'");
+        beginValue();
+        push(Scope.EmptyObject);
+        tokenizer.skipNextToken();
+    }
+
+    public void endObject() throws InvalidSyntaxException {
+        expect(Token.Type.RBrace, "'}'");
+        tokenizer.skipNextToken();
+        depth--;
+        peeked = false;
+    }
+
+    public void beginArray() throws InvalidSyntaxException {
+        expect(Token.Type.LBracket, "'['");
+        beginValue();
+        push(Scope.EmptyArray);
+        tokenizer.skipNextToken();
+    }
+
+    public void endArray() throws InvalidSyntaxException {
+        expect(Token.Type.RBracket, "']'");
+        tokenizer.skipNextToken();
+        depth--;
+        peeked = false;
+    }
+
+    /**
+     * @return The next key of the current object.
+     * @throws IllegalStateException If the reader is not positioned at a key of an object.
+     */
+    public @NotNull String nextName() throws InvalidSyntaxException {
+        val scope = stack[depth];
+        if (scope != Scope.EmptyObject && scope != Scope.Object) throw new IllegalStateException("Not inside of an object, or a value is expected instead of a key");
+        expect(Token.Type.String, "string");
+        val name = tokenizer.popNextKey(keyTable);
+        readColon();
+        return name;
+    }
+
+    public @NotNull String nextString() throws InvalidSyntaxException {
+        expect(Token.Type.String, "string");
+        beginValue();
+        return tokenizer.popNextString();
+    }
+
+    /**
+     * @throws ArithmeticException If the value does not fit into a {@code long}.
+     */
+    public long nextLong() throws InvalidSyntaxException {
+        expect(Token.Type.Int, "int");
+        beginValue();
+        val text = tokenizer.popNextToken().text;
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new ArithmeticException(text + " does not fit into a long");
+        }
+    }
+
+    public double nextDouble() throws InvalidSyntaxException {
+        val type = peek();
+        if (type != Token.Type.Int && type != Token.Type.Float) throw error("int, float");
+        beginValue();
+        return NumberUtil.parseDouble(tokenizer.popNextToken().text);
+    }
+
+    public boolean nextBoolean() throws InvalidSyntaxException {
+        val type = peek();
+        if (type != Token.Type.True && type != Token.Type.False) throw error("'true', 'false'");
+        beginValue();
+        tokenizer.skipNextToken();
+        return type == Token.Type.True;
+    }
+
+    public void nextNull() throws InvalidSyntaxException {
+        expect(Token.Type.Null, "'null'");
+        beginValue();
+        tokenizer.skipNextToken();
+    }
+
+    /**
+     * Skips the next value, including all of its children if it's an array or object. If the reader is positioned at
+     * a key, the key is skipped together with its value. Skipped tokens are never materialized, so this does not
+     * allocate. The contents of skipped arrays and objects are only checked for balanced brackets.
+     */
+    public void skipValue() throws InvalidSyntaxException {
+        var type = peek();
+        val scope = stack[depth];
+        if (type == Token.Type.String && (scope == Scope.EmptyObject || scope == Scope.Object)) {
+            tokenizer.skipNextToken();
+            readColon();
+            type = peek();
+        }
+        if (type == null) throw new InvalidSyntaxException("value");
+        if (type == Token.Type.RBrace || type == Token.Type.RBracket) throw error("value");
+        beginValue();
+        TokenUtil.skipValue(tokenizer);
+    }
+
+    private void readColon() {
+        if (tokenizer.peekNextType() != Token.Type.Colon) throw error("':'");
+        tokenizer.skipNextToken();
+        stack[depth] = Scope.Name;
+        peeked = false;
+    }
+
+    private void beginValue() {
+        switch (stack[depth]) {
+            case EmptyObject:
+            case Object:
+                throw new IllegalStateException("Expected a key, call nextName() first");
+            case EmptyArray:
+                stack[depth] = Scope.Array;
+                break;
+            case Name:
+                stack[depth] = Scope.Object;
+                break;
+        }
+        peeked = false;
+    }
+
+    /**
+     * Enters the array or object opened by the next token, which must not have been consumed yet.
+     */
+    private void push(Scope scope) {
+        if (depth == maxDepth) {
+            val token = tokenizer.peekNextToken();
+            throw new InvalidSyntaxException("Nesting is deeper than the limit of " + maxDepth, token.line, token.col);
+        }
+        if (++depth == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[depth] = scope;
+    }
+
+    private void expect(Token.Type type, String expected) {
+        if (peek() != type) throw error(expected);
+    }
+
+    private Token.Type expectValue() {
+        val type = tokenizer.peekNextType();
+        if (type == null) throw new InvalidSyntaxException("value");
+        if (!TokenUtil.isValue(type)) throw error(TokenUtil.VALUE);
+        return type;
+    }
+
+    private InvalidSyntaxException error(String expected) {
+        return TokenUtil.error(tokenizer, expected);
+    }
+}
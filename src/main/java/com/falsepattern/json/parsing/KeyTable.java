@@ -0,0 +1,105 @@
+package com.falsepattern.json.parsing;
+
+import lombok.NonNull;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Canonical instances of object keys, shared between parses through {@link ParserOptions#withKeyTable(KeyTable)}.
+ * Keys are looked up by their raw chars or bytes, so a key that is already in the table costs no allocation, and all
+ * trees parsed with the same table share the same key instances. Since those instances live on, the hash that
+ * {@link String} caches on first use is only computed once per key.
+ * <p>
+ * The table is a fixed size cache that never grows: every key has a single slot, and a new key replaces whatever was
+ * in its slot before. Keys longer than {@link #MAX_KEY_LENGTH} are never stored.
+ * <p>
+ * Tables are thread safe without locking. Concurrent parses may replace each other's entries, which only costs a miss.
+ */
+public final class KeyTable {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private final String[] keys;
+    private final int mask;
+
+    public KeyTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The number of slots, rounded up to a power of two.
+     */
+    public KeyTable(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("Capacity must be between 1 and 2^30, got " + capacity);
+        val size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        keys = new String[size];
+        mask = size - 1;
+    }
+
+    public @NotNull String intern(char @NotNull @NonNull [] chars, int offset, int length) {
+        if (length > MAX_KEY_LENGTH) return new String(chars, offset, length);
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[offset + i];
+        }
+        val slot = slot(hash);
+        val candidate = keys[slot];
+        if (candidate != null && matches(candidate, chars, offset, length)) return candidate;
+        val key = new String(chars, offset, length);
+        keys[slot] = key;
+        return key;
+    }
+
+    /**
+     * @param ascii Bytes that are all below 0x80.
+     */
+    public @NotNull String intern(byte @NotNull @NonNull [] ascii, int offset, int length) {
+        if (length > MAX_KEY_LENGTH) return ascii(ascii, offset, length);
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + ascii[offset + i];
+        }
+        val slot = slot(hash);
+        val candidate = keys[slot];
+        if (candidate != null && matches(candidate, ascii, offset, length)) return candidate;
+        val key = ascii(ascii, offset, length);
+        keys[slot] = key;
+        return key;
+    }
+
+    public @NotNull String intern(@NotNull @NonNull String key) {
+        if (key.length() > MAX_KEY_LENGTH) return key;
+        val slot = slot(key.hashCode());
+        val candidate = keys[slot];
+        if (key.equals(candidate)) return candidate;
+        keys[slot] = key;
+        return key;
+    }
+
+    private int slot(int hash) {
+        //Same as String.hashCode, spread so that the low bits depend on all chars
+        return (hash ^ hash >>> 16) & mask;
+    }
+
+    private static boolean matches(String key, char[] chars, int offset, int length) {
+        if (key.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != chars[offset + i]) return false;
+        }
+        return true;
+    }
+
+    private static boolean matches(String key, byte[] ascii, int offset, int length) {
+        if (key.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != ascii[offset + i]) return false;
+        }
+        return true;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static String ascii(byte[] ascii, int offset, int length) {
+        //The deprecated constructor is the only one that skips the decoder entirely
+        return new String(ascii, 0, offset, length);
+    }
+}
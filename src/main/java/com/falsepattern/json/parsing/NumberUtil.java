@@ -0,0 +1,364 @@
+package com.falsepattern.json.parsing;
+
+import lombok.val;
+
+import java.math.BigInteger;
+
+/**
+ * Conversions between decimal text and doubles, without going through {@link java.math.BigDecimal}.
+ * <p>
+ * Parsing uses the Clinger fast path for short significands and small exponents, and the Eisel-Lemire algorithm for
+ * the rest. The few inputs that neither can decide are handed to {@link Double#parseDouble(String)}. Printing uses the
+ * Schubfach algorithm, which finds the shortest decimal that parses back to the same double.
+ */
+public class NumberUtil {
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    //Significands up to this are exact as a double
+    private static final long MAX_EXACT_SIGNIFICAND = 1L << 53;
+
+    //Eisel-Lemire: the powers of five as 128 bit values with the highest bit set, high half first
+    private static final int MIN_POWER = -342;
+    private static final int MAX_POWER = 308;
+    private static final long[] POWERS_OF_FIVE = new long[2 * (MAX_POWER - MIN_POWER + 1)];
+
+    //Schubfach: floor(10^-k * 2^-r) + 1 for r = flog2pow10(-k) - 125, split into its upper and lower 63 bits
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+    private static final long[] G = new long[2 * (K_MAX - K_MIN + 1)];
+
+    private static final int P = 53;
+    private static final int Q_MIN = -1074;
+    private static final long C_MIN = 1L << 52;
+    private static final long T_MASK = C_MIN - 1;
+    private static final long MASK_63 = Long.MAX_VALUE;
+
+    static {
+        val five = BigInteger.valueOf(5);
+        for (int q = MIN_POWER; q <= MAX_POWER; q++) {
+            BigInteger power;
+            if (q >= 0) {
+                power = five.pow(q);
+                val shift = 128 - power.bitLength();
+                power = shift >= 0 ? power.shiftLeft(shift) : power.shiftRight(-shift);
+            } else {
+                //Rounded up reciprocal, with enough extra bits for the truncation to be safe
+                val divisor = five.pow(-q);
+                val z = divisor.bitLength();
+                val bits = q >= -27 ? z + 127 : 2 * z + 128;
+                power = BigInteger.ONE.shiftLeft(bits).divide(divisor).add(BigInteger.ONE);
+                if (power.bitLength() > 128) power = power.shiftRight(power.bitLength() - 128);
+            }
+            val index = 2 * (q - MIN_POWER);
+            POWERS_OF_FIVE[index] = power.shiftRight(64).longValue();
+            POWERS_OF_FIVE[index + 1] = power.longValue();
+        }
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            val e = -k;
+            val r = flog2pow10(e) - 125;
+            BigInteger g;
+            if (e >= 0) {
+                val power = BigInteger.TEN.pow(e);
+                g = r >= 0 ? power.shiftRight(r) : power.shiftLeft(-r);
+            } else {
+                g = BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(-e));
+            }
+            g = g.add(BigInteger.ONE);
+            val index = 2 * (k - K_MIN);
+            G[index] = g.shiftRight(63).longValue();
+            G[index + 1] = g.longValue() & MASK_63;
+        }
+    }
+
+    /**
+     * Parses a json number literal, with the same result as {@link Double#parseDouble(String)}.
+     * @throws NumberFormatException If the text is not a number.
+     */
+    public static double parseDouble(CharSequence text) {
+        val length = text.length();
+        int i = 0;
+        val negative = length > 0 && text.charAt(0) == '-';
+        if (negative) i++;
+        //The first 19 significant digits, as an unsigned long
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        val start = i;
+        char c;
+        while (i < length && (c = text.charAt(i)) >= '0' && c <= '9') {
+            if (significand != 0 || c != '0') {
+                if (++digits > 19) return Double.parseDouble(text.toString());
+                significand = significand * 10 + (c - '0');
+            }
+            i++;
+        }
+        if (i == start) return Double.parseDouble(text.toString());
+        if (i < length && text.charAt(i) == '.') {
+            val fractionStart = ++i;
+            while (i < length && (c = text.charAt(i)) >= '0' && c <= '9') {
+                if (significand != 0 || c != '0') {
+                    if (++digits > 19) return Double.parseDouble(text.toString());
+                    significand = significand * 10 + (c - '0');
+                }
+                exponent--;
+                i++;
+            }
+            if (i == fractionStart) return Double.parseDouble(text.toString());
+        }
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            val negativeExponent = i < length && text.charAt(i) == '-';
+            if (i < length && (negativeExponent || text.charAt(i) == '+')) i++;
+            val exponentStart = i;
+            int explicit = 0;
+            while (i < length && (c = text.charAt(i)) >= '0' && c <= '9') {
+                explicit = explicit * 10 + (c - '0');
+                i++;
+            }
+            if (i == exponentStart || i - exponentStart > 9) return Double.parseDouble(text.toString());
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (i != length) return Double.parseDouble(text.toString());
+        val result = toDouble(significand, exponent, negative);
+        return Double.isNaN(result) ? Double.parseDouble(text.toString()) : result;
+    }
+
+    /**
+     * @return The double closest to significand * 10^exponent.
+     */
+    public static double toDouble(long significand, int exponent) {
+        val negative = significand < 0;
+        //Long.MIN_VALUE stays negative, which reads correctly as an unsigned long
+        val result = toDouble(negative ? -significand : significand, exponent, negative);
+        return Double.isNaN(result) ? Double.parseDouble(significand + "E" + exponent) : result;
+    }
+
+    /**
+     * @param significand An unsigned long.
+     * @return The double closest to significand * 10^exponent, or NaN if the fast paths can't tell.
+     */
+    private static double toDouble(long significand, int exponent, boolean negative) {
+        if (significand == 0) return negative ? -0.0 : 0.0;
+        if (significand > 0 && significand <= MAX_EXACT_SIGNIFICAND && exponent >= -22 && exponent <= 22) {
+            //Both operands are exact, so the single rounding of the operation gives the correctly rounded result
+            val value = exponent >= 0 ? significand * DOUBLE_POWERS_OF_TEN[exponent] : significand / DOUBLE_POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+        return eiselLemire(significand, exponent, negative);
+    }
+
+    private static double eiselLemire(long significand, int exponent, boolean negative) {
+        if (exponent < MIN_POWER || exponent > MAX_POWER) return Double.NaN;
+        int leadingZeros = Long.numberOfLeadingZeros(significand);
+        val normalized = significand << leadingZeros;
+        val index = 2 * (exponent - MIN_POWER);
+        long high = unsignedMultiplyHigh(normalized, POWERS_OF_FIVE[index]);
+        long low = normalized * POWERS_OF_FIVE[index];
+        if ((high & 0x1FF) == 0x1FF) {
+            //The truncated power might not be precise enough, so add the next 64 bits of it
+            val next = unsignedMultiplyHigh(normalized, POWERS_OF_FIVE[index + 1]);
+            low += next;
+            if (Long.compareUnsigned(next, low) > 0) high++;
+        }
+        if (low == -1 && (exponent < -27 || exponent > 55)) return Double.NaN;
+        val upperBit = (int) (high >>> 63);
+        long mantissa = high >>> (upperBit + 9);
+        leadingZeros += 1 ^ upperBit;
+        long binaryExponent = ((152170L + 65536L) * exponent >> 16) + 1024 + 63 - leadingZeros;
+        //Subnormals, and ties that need rounding to even, are left to the slow path
+        if (binaryExponent <= 0) return Double.NaN;
+        if (low == 0 && (high & 0x1FF) == 0 && (mantissa & 3) == 1) return Double.NaN;
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= 1L << 53) {
+            mantissa = 1L << 52;
+            binaryExponent++;
+        }
+        if (binaryExponent >= 0x7FF) return Double.NaN;
+        val bits = mantissa & ~(1L << 52) | binaryExponent << 52 | (negative ? Long.MIN_VALUE : 0);
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Prints the shortest decimal that parses back to the same double. Integral values in plain notation keep a
+     * {@code .0}, so they read back as floats. The exponent notation is only used if it is more than 2 chars shorter
+     * than the plain one, and never has a fraction, like {@code 15e-8}.
+     * @throws IllegalArgumentException If the value is infinite or NaN, which json can't represent.
+     */
+    public static String toString(double value) {
+        val result = new StringBuilder(24);
+        appendTo(result, value);
+        return result.toString();
+    }
+
+    /**
+     * See {@link #toString(double)}.
+     */
+    public static void appendTo(StringBuilder out, double value) {
+        val bits = Double.doubleToRawLongBits(value);
+        val t = bits & T_MASK;
+        val bq = (int) (bits >>> 52) & 0x7FF;
+        if (bq == 0x7FF) throw new IllegalArgumentException("Infinite or NaN: " + value);
+        if (bits < 0 && (bq != 0 || t != 0)) out.append('-');
+        if (bq != 0) {
+            val mq = -Q_MIN + 1 - bq;
+            val c = C_MIN | t;
+            if (0 < mq & mq < P) {
+                val f = c >> mq;
+                if (f << mq == c) {
+                    format(out, f, 0);
+                    return;
+                }
+            }
+            toDecimal(out, -mq, c);
+        } else if (t != 0) {
+            toDecimal(out, Q_MIN, t);
+        } else {
+            out.append("0.0");
+        }
+    }
+
+    /**
+     * Finds the shortest decimal in the rounding interval of c * 2^q, and the closest one to it if there are several.
+     */
+    private static void toDecimal(StringBuilder out, int q, long c) {
+        val odd = (int) c & 1;
+        val cb = c << 2;
+        val cbr = cb + 2;
+        final long cbl;
+        final int k;
+        if (c != C_MIN | q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            //The interval is asymmetric at powers of two
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        val h = q + flog2pow10(-k) + 2;
+        val index = 2 * (k - K_MIN);
+        val g1 = G[index];
+        val g0 = G[index + 1];
+        val vb = rop(g1, g0, cb << h);
+        val vbl = rop(g1, g0, cbl << h);
+        val vbr = rop(g1, g0, cbr << h);
+        val s = vb >> 2;
+        if (s >= 10) {
+            //One digit less, if either neighbour is still inside the interval. Unlike the JDK, this also applies to
+            //subnormals with only two digits left, since a single digit is shorter even if it is further away.
+            val sp10 = 10 * multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            val tp10 = sp10 + 10;
+            val upin = vbl + odd <= sp10 << 2;
+            val wpin = (tp10 << 2) + odd <= vbr;
+            if (upin != wpin) {
+                format(out, upin ? sp10 : tp10, k);
+                return;
+            }
+        }
+        val t = s + 1;
+        val uin = vbl + odd <= s << 2;
+        val win = (t << 2) + odd <= vbr;
+        if (uin != win) {
+            format(out, uin ? s : t, k);
+            return;
+        }
+        val cmp = vb - (s + t << 1);
+        format(out, cmp < 0 || cmp == 0 && (s & 1) == 0 ? s : t, k);
+    }
+
+    /**
+     * Appends f * 10^e, which is positive.
+     */
+    private static void format(StringBuilder out, long f, int e) {
+        while (f % 10 == 0) {
+            f /= 10;
+            e++;
+        }
+        val digits = Long.toString(f);
+        val length = digits.length();
+        //Position of the decimal point, counted from the start of the digits
+        val point = length + e;
+        final int plainLength;
+        if (e >= 0) {
+            plainLength = point + 2;
+        } else if (point > 0) {
+            plainLength = length + 1;
+        } else {
+            plainLength = 2 - point + length;
+        }
+        val exponentLength = length + 1 + stringSize(e);
+        if (plainLength > exponentLength + 2) {
+            out.append(digits).append('e').append(e);
+        } else if (e >= 0) {
+            out.append(digits);
+            for (int i = 0; i < e; i++) {
+                out.append('0');
+            }
+            out.append(".0");
+        } else if (point > 0) {
+            out.append(digits, 0, point).append('.').append(digits, point, length);
+        } else {
+            out.append("0.");
+            for (int i = point; i < 0; i++) {
+                out.append('0');
+            }
+            out.append(digits);
+        }
+    }
+
+    private static int stringSize(int value) {
+        int size = value < 0 ? 2 : 1;
+        value = Math.abs(value);
+        while (value >= 10) {
+            value /= 10;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * @return The rounded to odd upper 64 bits of the product of g and cp.
+     */
+    private static long rop(long g1, long g0, long cp) {
+        val x1 = multiplyHigh(g0, cp);
+        val y0 = g1 * cp;
+        val y1 = multiplyHigh(g1, cp);
+        val z = (y0 >>> 1) + x1;
+        val vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L - 274_743_187_321L >> 41);
+    }
+
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+
+    /**
+     * Same as {@code Math.multiplyHigh}, which is not available on Java 8.
+     */
+    private static long multiplyHigh(long x, long y) {
+        val x1 = x >> 32;
+        val x2 = x & 0xFFFFFFFFL;
+        val y1 = y >> 32;
+        val y2 = y & 0xFFFFFFFFL;
+        val z2 = x2 * y2;
+        val t = x1 * y2 + (z2 >>> 32);
+        long z1 = t & 0xFFFFFFFFL;
+        val z0 = t >> 32;
+        z1 += x2 * y1;
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return multiplyHigh(x, y) + (y & x >> 63) + (x & y >> 63);
+    }
+}
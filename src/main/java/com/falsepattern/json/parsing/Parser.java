@@ -5,10 +5,23 @@ import com.falsepattern.json.parsing.token.Tokenizer;
 import lombok.val;
 import lombok.var;
 
+/**
+ * Recursive descent parser that builds an {@link ASTNode} tree. Recursion depth is capped by the
+ * {@link ParserOptions#maxDepth depth limit}, so deep input fails with an {@link InvalidSyntaxException} instead of
+ * overflowing the call stack.
+ */
 public class Parser {
     private final Tokenizer tokenizer;
+    private final int maxDepth;
+    private int depth = 0;
     public Parser(String text) {
+        this(text, ParserOptions.DEFAULT);
+    }
+
+    public Parser(String text, ParserOptions options) {
         this.tokenizer = new Tokenizer(text);
+        this.maxDepth = options.maxDepth;
+        tokenizer.setLimits(options);
     }
 
     public ASTNode term_string() throws InvalidSyntaxException {
@@ -59,9 +72,12 @@ public class Parser {
             case Null:
                 return term_null();
             case LBrace:
-                return obj();
             case LBracket:
-                return arr();
+                if (depth == maxDepth) throw new InvalidSyntaxException("Nesting is deeper than the limit of " + maxDepth, token.line, token.col);
+                depth++;
+                val node = token.tokenType == Token.Type.LBrace ? obj() : arr();
+                depth--;
+                return node;
             default:
                 throw new InvalidSyntaxException("string, int, float, 'true', 'false', 'null', '{', '['", token);
         }
@@ -0,0 +1,98 @@
+package com.falsepattern.json.parsing;
+
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.NonNull;
+import lombok.val;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Limits that protect the parsers against hostile input, and the optional {@link KeyTable}. Exceeding any of the limits
+ * fails the parse with an {@link InvalidSyntaxException} as soon as it is detected, before the offending value is read
+ * any further.
+ * <p>
+ * Instances are immutable, the {@code with} methods return modified copies.
+ */
+public final class ParserOptions {
+    /**
+     * At most 1000 levels of nesting, strings of up to 20 million chars and numbers of up to 1000 chars, with no limit
+     * on the length of the document. Used by all parsers unless told otherwise.
+     */
+    public static final ParserOptions DEFAULT = new ParserOptions(1000, Long.MAX_VALUE, 20_000_000, 1000, null);
+    public static final ParserOptions UNLIMITED = new ParserOptions(Integer.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, null);
+
+    public final int maxDepth;
+    public final long maxDocumentLength;
+    public final int maxStringLength;
+    public final int maxNumberLength;
+    /**
+     * The table object keys are taken from, or null to create new strings for every key.
+     */
+    public final @Nullable KeyTable keyTable;
+
+    private ParserOptions(int maxDepth, long maxDocumentLength, int maxStringLength, int maxNumberLength, KeyTable keyTable) {
+        this.maxDepth = positive(maxDepth, "depth");
+        this.maxDocumentLength = maxDocumentLength;
+        this.maxStringLength = positive(maxStringLength, "string length");
+        this.maxNumberLength = positive(maxNumberLength, "number length");
+        this.keyTable = keyTable;
+        if (maxDocumentLength <= 0) throw new IllegalArgumentException("Maximum document length must be positive, got " + maxDocumentLength);
+    }
+
+    /**
+     * @param maxDepth The number of arrays and objects that may be open at the same time.
+     */
+    @Contract(pure = true)
+    public @NotNull ParserOptions withMaxDepth(int maxDepth) {
+        return new ParserOptions(maxDepth, maxDocumentLength, maxStringLength, maxNumberLength, keyTable);
+    }
+
+    /**
+     * @param maxDocumentLength The number of chars, or bytes for byte based parsers, that may be read.
+     */
+    @Contract(pure = true)
+    public @NotNull ParserOptions withMaxDocumentLength(long maxDocumentLength) {
+        return new ParserOptions(maxDepth, maxDocumentLength, maxStringLength, maxNumberLength, keyTable);
+    }
+
+    /**
+     * @param maxStringLength The length of string literals between their quotes, with escape sequences not yet resolved.
+     */
+    @Contract(pure = true)
+    public @NotNull ParserOptions withMaxStringLength(int maxStringLength) {
+        return new ParserOptions(maxDepth, maxDocumentLength, maxStringLength, maxNumberLength, keyTable);
+    }
+
+    /**
+     * @param maxNumberLength The length of number literals, including the sign, fraction and exponent.
+     */
+    @Contract(pure = true)
+    public @NotNull ParserOptions withMaxNumberLength(int maxNumberLength) {
+        return new ParserOptions(maxDepth, maxDocumentLength, maxStringLength, maxNumberLength, keyTable);
+    }
+
+    /**
+     * @param keyTable The table to share object keys through, or null to create new strings for every key.
+     */
+    @Contract(pure = true)
+    public @NotNull ParserOptions withKeyTable(@Nullable KeyTable keyTable) {
+        return new ParserOptions(maxDepth, maxDocumentLength, maxStringLength, maxNumberLength, keyTable);
+    }
+
+    /**
+     * Used by everything that continues parsing on a tokenizer it was handed without explicit options, so parsing a
+     * nested value never loosens the limits a caller has set up.
+     * @return The options the tokenizer was set up with, or {@link #DEFAULT} if it has none yet.
+     */
+    @Contract(pure = true)
+    public static @NotNull ParserOptions of(@NotNull @NonNull Tokenizer tokenizer) {
+        val limits = tokenizer.getLimits();
+        return limits != null ? limits : DEFAULT;
+    }
+
+    private static int positive(int value, String name) {
+        if (value <= 0) throw new IllegalArgumentException("Maximum " + name + " must be positive, got " + value);
+        return value;
+    }
+}
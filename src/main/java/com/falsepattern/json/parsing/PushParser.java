@@ -0,0 +1,255 @@
+package com.falsepattern.json.parsing;
+
+import com.falsepattern.json.parsing.token.Token;
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.NonNull;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Event based parser that reports the structure and values of a document to a {@link JsonHandler} as it scans,
+ * without building a json tree. Punctuation and literals never become {@link Token} objects.
+ * <p>
+ * Nesting is tracked on an explicit stack instead of the call stack, so the parser can stop at any token boundary
+ * and pick up from there later, which is what {@link IncrementalParser} relies on. Deeply nested input can't overflow
+ * the call stack, and is rejected once it goes past the {@link ParserOptions#maxDepth depth limit}.
+ */
+public class PushParser {
+    private static final String VALUE = TokenUtil.VALUE;
+
+    enum Scope {
+        Document(VALUE),
+        ArrayFirst(VALUE + ", ']'"),
+        ArrayValue(VALUE),
+        ArrayNext("',', ']'"),
+        ObjectFirst("string, '}'"),
+        ObjectKey("string"),
+        ObjectColon("':'"),
+        ObjectValue(VALUE),
+        ObjectNext("',', '}'");
+
+        final String expected;
+
+        Scope(String expected) {
+            this.expected = expected;
+        }
+    }
+
+    enum Status {
+        /**
+         * A complete top level value was parsed.
+         */
+        Complete,
+        /**
+         * The handler asked to stop.
+         */
+        Stopped,
+        /**
+         * The tokenizer has no more input available for now.
+         */
+        Starved,
+        /**
+         * The input has ended.
+         */
+        End
+    }
+
+    private final Tokenizer tokenizer;
+    private final int maxDepth;
+    private final KeyTable keyTable;
+    private Scope[] stack = new Scope[32];
+    private int depth = 0;
+
+    /**
+     * Keeps the limits the tokenizer already has, or uses the {@link ParserOptions#DEFAULT default limits} if it has
+     * none. See {@link ParserOptions#of(Tokenizer)}.
+     */
+    public PushParser(@NotNull @NonNull Tokenizer tokenizer) {
+        this(tokenizer, ParserOptions.of(tokenizer));
+    }
+
+    /**
+     * @param options The limits to enforce, and the table to take object keys from. The length limits are applied to
+     *                the tokenizer.
+     */
+    public PushParser(@NotNull @NonNull Tokenizer tokenizer, @NotNull @NonNull ParserOptions options) {
+        this.tokenizer = tokenizer;
+        this.maxDepth = options.maxDepth;
+        this.keyTable = options.keyTable;
+        tokenizer.setLimits(options);
+        stack[0] = Scope.Document;
+    }
+
+    public PushParser(@NotNull @NonNull CharSequence text) {
+        this(new Tokenizer(text), ParserOptions.DEFAULT);
+    }
+
+    public PushParser(@NotNull @NonNull Reader reader) {
+        this(new Tokenizer(reader), ParserOptions.DEFAULT);
+    }
+
+    /**
+     * Parses the next value of the input, and reports it to the handler.
+     * @return False if the handler stopped the parser early, true if the whole value was parsed.
+     * @throws IllegalStateException If the tokenizer is fed by a non-blocking source and ran dry. Use an
+     * {@link IncrementalParser} for that.
+     */
+    public boolean parse(@NotNull @NonNull JsonHandler handler) throws InvalidSyntaxException {
+        switch (run(handler)) {
+            case Complete:
+                return true;
+            case Stopped:
+                return false;
+            case Starved:
+                throw new IllegalStateException("The tokenizer ran out of available input, use an IncrementalParser for non-blocking input");
+            default:
+                throw unexpectedEnd();
+        }
+    }
+
+    /**
+     * Advances the parser as far as the available input and the handler allow.
+     */
+    Status run(JsonHandler handler) {
+        while (true) {
+            val type = tokenizer.peekNextType();
+            if (type == null) {
+                return tokenizer.needsInput() ? Status.Starved : Status.End;
+            }
+            switch (stack[depth]) {
+                case Document:
+                    if (!value(handler, type, Scope.Document)) return Status.Stopped;
+                    break;
+                case ArrayFirst:
+                    if (type == Token.Type.RBracket) {
+                        if (!close(handler, false)) return Status.Stopped;
+                        break;
+                    }
+                    if (!value(handler, type, Scope.ArrayNext)) return Status.Stopped;
+                    break;
+                case ArrayValue:
+                    if (!value(handler, type, Scope.ArrayNext)) return Status.Stopped;
+                    break;
+                case ArrayNext:
+                    if (type == Token.Type.Comma) {
+                        tokenizer.skipNextToken();
+                        stack[depth] = Scope.ArrayValue;
+                    } else if (type == Token.Type.RBracket) {
+                        if (!close(handler, false)) return Status.Stopped;
+                    } else {
+                        throw unexpected();
+                    }
+                    break;
+                case ObjectFirst:
+                case ObjectKey:
+                    //Only an empty object may close before its first key
+                    if (type == Token.Type.RBrace && stack[depth] == Scope.ObjectFirst) {
+                        if (!close(handler, true)) return Status.Stopped;
+                        break;
+                    }
+                    if (type != Token.Type.String) throw unexpected();
+                    stack[depth] = Scope.ObjectColon;
+                    if (!handler.key(tokenizer.popNextKey(keyTable))) return Status.Stopped;
+                    break;
+                case ObjectColon:
+                    if (type != Token.Type.Colon) throw unexpected();
+                    tokenizer.skipNextToken();
+                    stack[depth] = Scope.ObjectValue;
+                    break;
+                case ObjectValue:
+                    if (!value(handler, type, Scope.ObjectNext)) return Status.Stopped;
+                    break;
+                case ObjectNext:
+                    if (type == Token.Type.Comma) {
+                        tokenizer.skipNextToken();
+                        stack[depth] = Scope.ObjectKey;
+                    } else if (type == Token.Type.RBrace) {
+                        if (!close(handler, true)) return Status.Stopped;
+                    } else {
+                        throw unexpected();
+                    }
+                    break;
+            }
+            if (depth == 0) {
+                return Status.Complete;
+            }
+        }
+    }
+
+    /**
+     * @return True if the parser is in the middle of a top level value.
+     */
+    boolean isInsideValue() {
+        return depth > 0;
+    }
+
+    /**
+     * @return The error to report when the input ends at the current position.
+     */
+    InvalidSyntaxException unexpectedEnd() {
+        return new InvalidSyntaxException(stack[depth].expected);
+    }
+
+    private InvalidSyntaxException unexpected() {
+        return new InvalidSyntaxException(stack[depth].expected, tokenizer.peekNextToken());
+    }
+
+    /**
+     * Reports the value starting with the next token, after moving the current scope on to the given one.
+     */
+    private boolean value(JsonHandler handler, Token.Type type, Scope next) {
+        if (!TokenUtil.isValue(type)) throw unexpected();
+        stack[depth] = next;
+        switch (type) {
+            case String:
+                return handler.value(tokenizer.popNextStringValue());
+            case Int:
+                return handler.intLiteral(tokenizer.popNextToken().text);
+            case Float:
+                return handler.floatLiteral(tokenizer.popNextToken().text);
+            case True:
+                tokenizer.skipNextToken();
+                return handler.value(true);
+            case False:
+                tokenizer.skipNextToken();
+                return handler.value(false);
+            case Null:
+                tokenizer.skipNextToken();
+                return handler.nullValue();
+            case LBrace:
+                checkDepth();
+                tokenizer.skipNextToken();
+                push(Scope.ObjectFirst);
+                return handler.startObject();
+            case LBracket:
+                checkDepth();
+                tokenizer.skipNextToken();
+                push(Scope.ArrayFirst);
+                return handler.startArray();
+            default:
+                throw unexpected();
+        }
+    }
+
+    private boolean close(JsonHandler handler, boolean object) {
+        tokenizer.skipNextToken();
+        depth--;
+        return object ? handler.endObject() : handler.endArray();
+    }
+
+    private void checkDepth() {
+        if (depth < maxDepth) return;
+        val token = tokenizer.peekNextToken();
+        throw new InvalidSyntaxException("Nesting is deeper than the limit of " + maxDepth, token.line, token.col);
+    }
+
+    private void push(Scope scope) {
+        if (++depth == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[depth] = scope;
+    }
+}
@@ -15,4 +15,54 @@ public class StringUtil {
             return result.append(line).append('\n');
         }).collect(Collectors.joining());
     }
+
+    /**
+     * @param literal A json string literal, including the surrounding quotes.
+     * @return The contents of the literal, with escape sequences resolved.
+     */
+    public static String unquote(String literal) {
+        return unescape(literal.substring(1, literal.length() - 1));
+    }
+
+    public static String unescape(String text) {
+        val first = text.indexOf('\\');
+        if (first < 0) return text;
+        val len = text.length();
+        val sb = new StringBuilder(len).append(text, 0, first);
+        for (int i = first; i < len; i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                if (++i < len) {
+                    char next = text.charAt(i);
+                    switch (next) {
+                        case '"': sb.append('"'); break;
+                        case '\\': sb.append('\\'); break;
+                        case '/': sb.append('/'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'n': sb.append('\n'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'u':
+                            if (i + 4 < len) {
+                                String hex = text.substring(i + 1, i + 5);
+                                try {
+                                    sb.append((char)Integer.parseInt(hex, 16));
+                                } catch (NumberFormatException e) {
+                                    throw new IllegalArgumentException("Invalid unicode escape sequence: \\u" + hex);
+                                }
+                                i += 4;
+                            } else {
+                                throw new IllegalArgumentException("Incomplete unicode escape sequence: \\u" + text.substring(i));
+                            }
+                    }
+                } else {
+                    throw new IllegalArgumentException("Incomplete escape sequence: \\");
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
 }
@@ -0,0 +1,139 @@
+package com.falsepattern.json.parsing;
+
+import lombok.val;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * First stage of the {@link IndexedParser}: the positions of every structural character outside of strings, every
+ * unescaped quote, and the first byte of every number or literal, in order.
+ * <p>
+ * The input is classified 64 bytes at a time. Each 8 byte word is compared against all interesting characters at once
+ * with SWAR (SIMD within a register) arithmetic, which yields one bitmap per character class for the whole block. The
+ * string state is then derived from the quote bitmap with a prefix xor, so no byte is ever looked at on its own.
+ */
+final class StructuralIndex {
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH = 0x8080808080808080L;
+
+    int[] positions;
+    int count = 0;
+
+    private StructuralIndex(int capacity) {
+        positions = new int[capacity];
+    }
+
+    static StructuralIndex build(byte[] input, int offset, int length) {
+        //Typical documents have a structural position every 4 to 8 bytes
+        val index = new StructuralIndex(Math.max(16, length / 4));
+        val words = ByteBuffer.wrap(input).order(ByteOrder.LITTLE_ENDIAN);
+        val tail = new byte[64];
+        val tailWords = ByteBuffer.wrap(tail).order(ByteOrder.LITTLE_ENDIAN);
+        val end = offset + length;
+        boolean escapeCarry = false;
+        boolean stringCarry = false;
+        boolean atomCarry = false;
+        for (int block = offset; block < end; block += 64) {
+            ByteBuffer source = words;
+            int base = block;
+            if (end - block < 64) {
+                //Pad the last block with whitespace, which never shows up in the index
+                Arrays.fill(tail, (byte) ' ');
+                System.arraycopy(input, block, tail, 0, end - block);
+                source = tailWords;
+                base = 0;
+            }
+            long quote = 0;
+            long backslash = 0;
+            long structural = 0;
+            long whitespace = 0;
+            for (int i = 0; i < 8; i++) {
+                val word = source.getLong(base + i * 8);
+                val shift = i * 8;
+                quote |= gather(equal(word, '"')) << shift;
+                backslash |= gather(equal(word, '\\')) << shift;
+                structural |= gather(equal(word, '{') | equal(word, '}') |
+                                     equal(word, '[') | equal(word, ']') |
+                                     equal(word, ':') | equal(word, ',')) << shift;
+                whitespace |= gather(equal(word, ' ') | equal(word, '\t') |
+                                     equal(word, '\n') | equal(word, '\r')) << shift;
+            }
+
+            //A backslash escapes the next byte, unless it is escaped itself
+            long escaped = 0;
+            long pending = backslash;
+            if (escapeCarry) {
+                escaped = 1;
+                pending &= ~1L;
+            }
+            escapeCarry = false;
+            while (pending != 0) {
+                val lowest = pending & -pending;
+                if (lowest == Long.MIN_VALUE) {
+                    escapeCarry = true;
+                } else {
+                    escaped |= lowest << 1;
+                }
+                pending &= ~(lowest | lowest << 1);
+            }
+
+            //Opening quotes and string contents are set, closing quotes are clear
+            quote &= ~escaped;
+            long inString = prefixXor(quote);
+            if (stringCarry) inString = ~inString;
+            stringCarry = inString < 0;
+
+            structural &= ~inString;
+            //Bytes of numbers, literals and garbage, only the first of each run is indexed
+            val atom = ~(structural | whitespace | quote | inString);
+            val atomStarts = atom & ~(atom << 1 | (atomCarry ? 1 : 0));
+            atomCarry = atom < 0;
+
+            index.add(block, structural | quote | atomStarts);
+        }
+        return index;
+    }
+
+    private void add(int base, long bits) {
+        val needed = count + Long.bitCount(bits);
+        if (needed > positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(needed, positions.length * 2));
+        }
+        while (bits != 0) {
+            positions[count++] = base + Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+        }
+    }
+
+    /**
+     * @return The high bit of every byte of the word that equals the given char.
+     */
+    private static long equal(long word, char c) {
+        val x = word ^ (ONES * c);
+        //The sum carries into the high bit for every non-zero low 7 bits, without spilling into the next byte
+        return ~(((x & LOW7) + LOW7) | x) & HIGH;
+    }
+
+    /**
+     * @return The high bits of the 8 bytes packed into the lowest 8 bits.
+     */
+    private static long gather(long highBits) {
+        return (highBits >>> 7) * 0x0102040810204080L >>> 56;
+    }
+
+    /**
+     * @return Every bit set to the xor of itself and all lower bits.
+     */
+    private static long prefixXor(long x) {
+        x ^= x << 1;
+        x ^= x << 2;
+        x ^= x << 4;
+        x ^= x << 8;
+        x ^= x << 16;
+        x ^= x << 32;
+        return x;
+    }
+}
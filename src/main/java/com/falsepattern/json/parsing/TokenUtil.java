@@ -0,0 +1,100 @@
+package com.falsepattern.json.parsing;
+
+import com.falsepattern.json.parsing.token.Token;
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.val;
+import lombok.var;
+
+import java.util.Arrays;
+
+public class TokenUtil {
+    public static final String VALUE = "string, int, float, 'true', 'false', 'null', '{', '['";
+
+    /**
+     * @return True if a token of the given type can start a value.
+     */
+    public static boolean isValue(Token.Type type) {
+        switch (type) {
+            case String:
+            case Int:
+            case Float:
+            case True:
+            case False:
+            case Null:
+            case LBrace:
+            case LBracket:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Skips the next value, including all of its children if it's an array or object. Skipped tokens are never
+     * materialized. The contents of skipped arrays and objects are only checked for balanced brackets: every closing
+     * bracket has to match the kind of the innermost open one.
+     */
+    public static void skipValue(Tokenizer tokenizer) throws InvalidSyntaxException {
+        skipValue(tokenizer, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * See {@link #skipValue(Tokenizer)}. Also enforces the depth limit on the skipped value.
+     * @param depth The number of arrays and objects the value is nested in.
+     * @param maxDepth See {@link ParserOptions#maxDepth}.
+     */
+    public static void skipValue(Tokenizer tokenizer, int depth, int maxDepth) throws InvalidSyntaxException {
+        var type = tokenizer.peekNextType();
+        if (type == null) throw new InvalidSyntaxException(VALUE);
+        if (!isValue(type)) throw error(tokenizer, VALUE);
+        int nesting = 0;
+        //One bit per open bracket, set for objects and clear for arrays
+        long[] objects = new long[1];
+        do {
+            type = tokenizer.peekNextType();
+            if (type == null) throw new InvalidSyntaxException(isObject(objects, nesting - 1) ? "',', '}'" : "',', ']'");
+            if (type == Token.Type.LBrace || type == Token.Type.LBracket) {
+                if (depth + nesting >= maxDepth) throw tooDeep(tokenizer, maxDepth);
+                if (nesting >>> 6 == objects.length) objects = Arrays.copyOf(objects, objects.length * 2);
+                if (type == Token.Type.LBrace) {
+                    objects[nesting >>> 6] |= 1L << nesting;
+                } else {
+                    objects[nesting >>> 6] &= ~(1L << nesting);
+                }
+                nesting++;
+            } else if (type == Token.Type.RBrace || type == Token.Type.RBracket) {
+                boolean object = isObject(objects, nesting - 1);
+                if (object != (type == Token.Type.RBrace)) throw error(tokenizer, object ? "',', '}'" : "',', ']'");
+                nesting--;
+            }
+            tokenizer.skipNextToken();
+        } while (nesting > 0);
+    }
+
+    private static boolean isObject(long[] objects, int level) {
+        return (objects[level >>> 6] >>> level & 1) != 0;
+    }
+
+    /**
+     * @throws InvalidSyntaxException If the next token is not of the given type.
+     */
+    public static void expect(Tokenizer tokenizer, Token.Type type, String expected) throws InvalidSyntaxException {
+        if (tokenizer.peekNextType() != type) throw error(tokenizer, expected);
+    }
+
+    /**
+     * @return An error about the next token, which opens an array or object past the depth limit.
+     */
+    public static InvalidSyntaxException tooDeep(Tokenizer tokenizer, int maxDepth) {
+        val token = tokenizer.peekNextToken();
+        return new InvalidSyntaxException("Nesting is deeper than the limit of " + maxDepth, token.line, token.col);
+    }
+
+    /**
+     * @return An error about the next token, or about the end of the input if there is none.
+     */
+    public static InvalidSyntaxException error(Tokenizer tokenizer, String expected) {
+        val token = tokenizer.peekNextToken();
+        return token == null ? new InvalidSyntaxException(expected) : new InvalidSyntaxException(expected, token);
+    }
+}
@@ -0,0 +1,48 @@
+package com.falsepattern.json.parsing.token;
+
+import lombok.val;
+
+import java.io.Reader;
+
+/**
+ * Unsynchronized {@link Reader} over an in-memory {@link CharSequence}, used to feed it to the {@link Tokenizer}
+ * window by window instead of copying it in one go.
+ */
+class CharSequenceReader extends Reader {
+    private final CharSequence text;
+    private final int end;
+    private int pos;
+
+    CharSequenceReader(CharSequence text) {
+        this(text, 0, text.length());
+    }
+
+    CharSequenceReader(CharSequence text, int start, int end) {
+        if (start < 0 || end > text.length() || start > end) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + text.length());
+        }
+        this.text = text;
+        this.pos = start;
+        this.end = end;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        val remaining = end - pos;
+        if (remaining <= 0) return -1;
+        val n = Math.min(len, remaining);
+        if (text instanceof String) {
+            ((String) text).getChars(pos, pos + n, cbuf, off);
+        } else {
+            for (int i = 0; i < n; i++) {
+                cbuf[off + i] = text.charAt(pos + i);
+            }
+        }
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,55 @@
+package com.falsepattern.json.parsing.token;
+
+import lombok.val;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Non-blocking {@link Utf8Reader} over byte chunks that are pushed into it as they arrive. Reading returns 0 while
+ * all buffered bytes are decoded, until {@link #close()} marks the end of the input. Bytes of a multibyte sequence
+ * that is split between chunks stay buffered until the rest of it arrives.
+ */
+public class ChunkReader extends Utf8Reader {
+    private boolean closed = false;
+
+    public ChunkReader() {
+        super(ByteBuffer.allocate(0));
+    }
+
+    /**
+     * Buffers all remaining bytes of the chunk. The chunk itself is not retained.
+     * @throws IllegalStateException If the reader was already closed.
+     */
+    public void feed(ByteBuffer chunk) {
+        if (closed) throw new IllegalStateException("Cannot feed more input after the end of the input");
+        val needed = input.remaining() + chunk.remaining();
+        if (needed > input.capacity()) {
+            val grown = ByteBuffer.allocate(Math.max(needed, input.capacity() * 2));
+            grown.put(input);
+            input = grown;
+        } else {
+            input.compact();
+        }
+        input.put(chunk);
+        ((Buffer) input).flip();
+    }
+
+    @Override
+    protected boolean hasMoreInput() {
+        return !closed;
+    }
+
+    @Override
+    protected boolean nextInput() {
+        return false;
+    }
+
+    /**
+     * Marks the end of the input. Bytes that are still buffered can be read afterwards.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,43 @@
+package com.falsepattern.json.parsing.token;
+
+import lombok.val;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * {@link Utf8Reader} over a file that is memory mapped one window at a time, so files larger than 2 GB can be read
+ * and the I/O is left to the page cache. The channel is not closed.
+ */
+class MappedUtf8Reader extends Utf8Reader {
+    static final int WINDOW_SIZE = 1 << 26;
+
+    private final FileChannel channel;
+    private final long end;
+    private long windowStart;
+
+    MappedUtf8Reader(FileChannel channel) throws IOException {
+        super(map(channel, channel.position(), channel.size()));
+        this.channel = channel;
+        this.end = channel.size();
+        this.windowStart = channel.position();
+    }
+
+    @Override
+    protected boolean hasMoreInput() {
+        return windowStart + input.limit() < end;
+    }
+
+    @Override
+    protected boolean nextInput() throws IOException {
+        windowStart += input.position();
+        input = map(channel, windowStart, end);
+        return true;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long start, long end) throws IOException {
+        val size = Math.min(WINDOW_SIZE, end - start);
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(0, size));
+    }
+}
@@ -0,0 +1,71 @@
+package com.falsepattern.json.parsing.token;
+
+import lombok.val;
+
+/**
+ * Reference tokenizer that matches the regex grammar in {@link Token.Type} directly.
+ * Kept for cross-checking {@link Tokenizer}, which should always produce the same tokens.
+ */
+public class RegexTokenizer {
+    private final CharSequence input;
+    private final int length;
+    private int pos = 0;
+    private Token nextToken = null;
+    public RegexTokenizer(CharSequence input) {
+        this.input = input;
+        this.length = input.length();
+    }
+
+    public boolean hasNextToken() {
+        if (nextToken == null) {
+            parseNextToken();
+        }
+        return nextToken != null;
+    }
+
+    public Token popNextToken() {
+        if (nextToken == null) {
+            parseNextToken();
+        }
+        val ret = nextToken;
+        nextToken = null;
+        return ret;
+    }
+
+    public Token peekNextToken() {
+        if (nextToken == null) {
+            parseNextToken();
+        }
+        return nextToken;
+    }
+
+    private int col = 0;
+    private int row = 0;
+
+    private void parseNextToken() {
+        val types = Token.Type.values();
+        outer:
+        while (pos < length) {
+            for (val type : types) {
+                val matcher = type.regex.matcher(input).region(pos, length);
+                if (matcher.lookingAt()) {
+                    val start = pos;
+                    pos = matcher.end();
+                    if (type == Token.Type.WS) {
+                        col += pos - start;
+                        continue outer;
+                    }
+                    if (type == Token.Type.Newline) {
+                        col = 0;
+                        row++;
+                        continue outer;
+                    }
+                    nextToken = new Token(type, matcher.group(), row, col);
+                    col += pos - start;
+                    return;
+                }
+            }
+            throw new IllegalArgumentException("Failed to parse JSON! Remaining: " + input.subSequence(pos, length));
+        }
+    }
+}
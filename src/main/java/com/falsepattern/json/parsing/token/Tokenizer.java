@@ -1,63 +1,533 @@
 package com.falsepattern.json.parsing.token;
 
+import com.falsepattern.json.parsing.EscapedString;
+import com.falsepattern.json.parsing.InvalidSyntaxException;
+import com.falsepattern.json.parsing.KeyTable;
+import com.falsepattern.json.parsing.ParserOptions;
+import com.falsepattern.json.parsing.StringUtil;
+import lombok.NonNull;
 import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 
 public class Tokenizer {
-    private String string;
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private Reader source;
+    private char[] buffer;
+    private int pos = 0;
+    private int limit = 0;
+    //Number of chars that were dropped from the front of the window so far
+    private long windowOffset = 0;
+    private Token.Type nextType = null;
+    private int nextLength = 0;
+    private boolean nextEscaped = false;
+    //Set if a backslash in the next string does not start a valid escape sequence
+    private boolean nextBadEscape = false;
     private Token nextToken = null;
-    public Tokenizer(String string) {
-        this.string = string;
+    private long maxDocumentLength = Long.MAX_VALUE;
+    private int maxStringLength = Integer.MAX_VALUE;
+    private int maxNumberLength = Integer.MAX_VALUE;
+    private ParserOptions limits = null;
+
+    public Tokenizer(CharSequence input) {
+        this(input, 0, input.length());
+    }
+
+    /**
+     * Tokenizes the chars of the input from start (inclusive) to end (exclusive). Lines and columns of the tokens are
+     * counted from the start of that range.
+     */
+    public Tokenizer(CharSequence input, int start, int end) {
+        this(new CharSequenceReader(input, start, end), Math.max(1, Math.min(end - start, DEFAULT_BUFFER_SIZE)));
+    }
+
+    /**
+     * Tokenizes the remaining UTF-8 encoded bytes of the buffer, decoding them one window at a time. The position of
+     * the buffer is left untouched.
+     * Malformed UTF-8 is reported as an {@link UncheckedIOException} wrapping a
+     * {@link java.nio.charset.CharacterCodingException}.
+     */
+    public Tokenizer(ByteBuffer input) {
+        this(new Utf8Reader(input.duplicate()), Math.max(1, Math.min(input.remaining(), DEFAULT_BUFFER_SIZE)));
+    }
+
+    /**
+     * Tokenizes the UTF-8 encoded file from the current position of the channel, by memory mapping it window by
+     * window instead of reading it onto the heap. The channel is not closed.
+     * @throws IOException If the first window of the file can't be mapped.
+     */
+    public Tokenizer(FileChannel channel) throws IOException {
+        this(new MappedUtf8Reader(channel), DEFAULT_BUFFER_SIZE);
+    }
+
+    public Tokenizer(Reader source) {
+        this(source, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param source The reader to pull the input from. It is read window by window and never closed by the tokenizer.
+     *               A non-blocking source may return 0 from {@link Reader#read(char[], int, int)} when no input is
+     *               available yet, in which case the tokenizer reports no next token and {@link #needsInput()} until
+     *               it is called again after more input arrived.
+     * @param bufferSize The size of the window. Only grows if a single token does not fit into it.
+     */
+    public Tokenizer(Reader source, int bufferSize) {
+        if (bufferSize <= 0) throw new IllegalArgumentException("Buffer size must be positive, got " + bufferSize);
+        this.source = source;
+        this.buffer = new char[bufferSize];
+    }
+
+    /**
+     * Applies the document, string and number length limits of the options from now on. A new tokenizer has no limits.
+     * Going over a limit throws an {@link InvalidSyntaxException} as soon as the scan gets past it, so oversized input
+     * is never buffered in full.
+     * <p>
+     * Parsers that are handed a tokenizer without options of their own keep these, see
+     * {@link ParserOptions#of(Tokenizer)}.
+     */
+    public void setLimits(@NotNull @NonNull ParserOptions options) {
+        limits = options;
+        maxDocumentLength = options.maxDocumentLength;
+        maxStringLength = options.maxStringLength;
+        maxNumberLength = options.maxNumberLength;
     }
 
+    /**
+     * @return The options last passed to {@link #setLimits(ParserOptions)}, or null if there were none.
+     */
+    public @Nullable ParserOptions getLimits() {
+        return limits;
+    }
+
+    /**
+     * @throws UncheckedIOException If reading from the underlying {@link Reader} fails.
+     */
     public boolean hasNextToken() {
-        if (nextToken == null) {
-            parseNextToken();
-        }
-        return nextToken != null;
+        return peekNextType() != null;
     }
 
+    /**
+     * @throws UncheckedIOException If reading from the underlying {@link Reader} fails.
+     */
     public Token popNextToken() {
-        if (nextToken == null) {
-            parseNextToken();
+        val ret = peekNextToken();
+        if (ret != null) {
+            consume();
         }
-        val ret = nextToken;
-        nextToken = null;
         return ret;
     }
 
+    /**
+     * @throws UncheckedIOException If reading from the underlying {@link Reader} fails.
+     */
     public Token peekNextToken() {
-        if (nextToken == null) {
-            parseNextToken();
+        if (nextToken == null && peekNextType() != null) {
+            nextToken = new Token(nextType, new String(buffer, pos, nextLength), row, col);
         }
         return nextToken;
     }
 
+    /**
+     * Like {@link #peekNextToken()}, but only determines the type of the token, without creating a {@link Token}.
+     * @return The type of the next token, or null if the input is exhausted.
+     * @throws UncheckedIOException If reading from the underlying {@link Reader} fails.
+     */
+    public Token.Type peekNextType() {
+        if (nextType == null) {
+            scanNextToken();
+        }
+        return nextType;
+    }
+
+    /**
+     * Like {@link #popNextToken()}, but without creating a {@link Token}.
+     * @return The type of the skipped token, or null if the input is exhausted.
+     * @throws UncheckedIOException If reading from the underlying {@link Reader} fails.
+     */
+    public Token.Type skipNextToken() {
+        val ret = peekNextType();
+        if (ret != null) {
+            consume();
+        }
+        return ret;
+    }
+
+    /**
+     * Compares the text of the next token with the given text, without creating a {@link Token}.
+     * @throws UncheckedIOException If reading from the underlying {@link Reader} fails.
+     */
+    public boolean nextTokenMatches(String text) {
+        if (peekNextType() == null || nextLength != text.length()) return false;
+        for (int i = 0; i < nextLength; i++) {
+            if (buffer[pos + i] != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return True if the next token is a string literal that contains backslashes.
+     * @throws UncheckedIOException If reading from the underlying {@link Reader} fails.
+     */
+    public boolean isNextStringEscaped() {
+        return peekNextType() == Token.Type.String && nextEscaped;
+    }
+
+    /**
+     * Pops the next token, which has to be a string literal, without creating a {@link Token}. Strings without
+     * backslashes are copied straight out of the window.
+     * @return The contents of the literal, with escape sequences resolved.
+     * @throws IllegalStateException If the next token is not a string.
+     * @throws UncheckedIOException If reading from the underlying {@link Reader} fails.
+     */
+    public String popNextString() {
+        val escaped = isNextStringEscaped();
+        val raw = popNextRawString();
+        return escaped ? StringUtil.unescape(raw) : raw;
+    }
+
+    /**
+     * Like {@link #popNextString()}, but strings without escape sequences are taken from the table, if there is one.
+     * @throws IllegalStateException If the next token is not a string.
+     * @throws UncheckedIOException If reading from the underlying {@link Reader} fails.
+     */
+    public String popNextKey(@Nullable KeyTable table) {
+        if (table == null || isNextStringEscaped()) return popNextString();
+        if (nextType != Token.Type.String) throw new IllegalStateException("The next token is not a string");
+        val result = table.intern(buffer, pos + 1, nextLength - 2);
+        consume();
+        return result;
+    }
+
+    /**
+     * Like {@link #popNextString()}, but strings with escape sequences are returned as an {@link EscapedString}, which
+     * only resolves them when it is first read. Strings with malformed escape sequences are still resolved right away,
+     * so that they fail here.
+     * @throws IllegalStateException If the next token is not a string.
+     * @throws UncheckedIOException If reading from the underlying {@link Reader} fails.
+     */
+    public CharSequence popNextStringValue() {
+        val escaped = isNextStringEscaped();
+        val bad = nextBadEscape;
+        val raw = popNextRawString();
+        if (!escaped) return raw;
+        return bad ? StringUtil.unescape(raw) : new EscapedString(raw);
+    }
+
+    /**
+     * Like {@link #popNextString()}, but leaves the escape sequences as they are. Use {@link #isNextStringEscaped()}
+     * first to find out whether there are any.
+     * @throws IllegalStateException If the next token is not a string.
+     * @throws UncheckedIOException If reading from the underlying {@link Reader} fails.
+     */
+    public String popNextRawString() {
+        if (peekNextType() != Token.Type.String) throw new IllegalStateException("The next token is not a string");
+        val result = new String(buffer, pos + 1, nextLength - 2);
+        consume();
+        return result;
+    }
+
+    private void consume() {
+        pos += nextLength;
+        col += nextLength;
+        nextType = null;
+        nextToken = null;
+    }
+
+    /**
+     * @return The number of chars before the cursor, counted from the start of the input. The cursor is at the start
+     * of the next token once it has been peeked, and right after the last consumed token before that.
+     */
+    public long offset() {
+        return windowOffset + pos;
+    }
+
+    /**
+     * @return True if the last attempt to read a token stopped because the source had no input available yet, as
+     * opposed to the input having ended. See {@link #Tokenizer(Reader, int)}.
+     */
+    public boolean needsInput() {
+        return starved;
+    }
+
     private int col = 0;
     private int row = 0;
+    private boolean starved = false;
+    //Where the scan of a string literal that ran out of input picks up again, relative to the cursor, or 0 if none did
+    private int stringResume = 0;
+    //Whether that string already contained an escaped quote
+    private boolean stringResumeEscapedQuote = false;
+
+    private void scanNextToken() {
+        starved = false;
+        scan();
+        if (starved) {
+            //The token might continue in input that hasn't arrived yet, so it gets scanned again later. Strings, which
+            //can get arbitrarily long, continue where they stopped instead of starting over.
+            nextType = null;
+        }
+    }
 
-    private void parseNextToken() {
-        val types = Token.Type.values();
-        outer:
-        while (string.length() > 0) {
-            for (val type : types) {
-                val matcher = type.regex.matcher(string);
-                if (matcher.lookingAt()) {
-                    string = string.substring(matcher.end());
-                    if (type == Token.Type.WS) {
-                        col += matcher.end();
-                        continue outer;
+    private void scan() {
+        int c;
+        while ((c = peek(0)) >= 0) {
+            switch (c) {
+                case ' ':
+                case '\t':
+                    pos++;
+                    col++;
+                    continue;
+                case '\r':
+                case '\n': {
+                    //peek may move the window, so it has to happen before the cursor is read
+                    val length = c == '\r' && peek(1) == '\n' ? 2 : 1;
+                    if (starved) return;
+                    pos += length;
+                    col = 0;
+                    row++;
+                    continue;
+                }
+                case '{': found(Token.Type.LBrace, 1); return;
+                case '}': found(Token.Type.RBrace, 1); return;
+                case ',': found(Token.Type.Comma, 1); return;
+                case '[': found(Token.Type.LBracket, 1); return;
+                case ']': found(Token.Type.RBracket, 1); return;
+                case ':': found(Token.Type.Colon, 1); return;
+                case 't':
+                    if (matchesLiteral("true")) {
+                        found(Token.Type.True, 4);
+                        return;
+                    }
+                    break;
+                case 'f':
+                    if (matchesLiteral("false")) {
+                        found(Token.Type.False, 5);
+                        return;
                     }
-                    if (type == Token.Type.Newline) {
-                        col = 0;
-                        row++;
-                        continue outer;
+                    break;
+                case 'n':
+                    if (matchesLiteral("null")) {
+                        found(Token.Type.Null, 4);
+                        return;
+                    }
+                    break;
+                case '"': {
+                    val length = scanString();
+                    if (length > 0) {
+                        found(Token.Type.String, length);
+                        return;
+                    }
+                    break;
+                }
+                default:
+                    if (c == '-' || isDigit(c)) {
+                        if (scanNumber()) return;
                     }
-                    nextToken = new Token(type, matcher.group(), row, col);
-                    col += matcher.end();
-                    return;
+                    break;
+            }
+            if (starved) return;
+            throw new IllegalArgumentException("Failed to parse JSON! Remaining: " + new String(buffer, pos, limit - pos));
+        }
+    }
+
+    /**
+     * @return The character at the given offset from the cursor, or -1 if the input ends before it.
+     */
+    private int peek(int offset) {
+        while (pos + offset >= limit) {
+            if (!fill()) return -1;
+        }
+        return buffer[pos + offset];
+    }
+
+    /**
+     * Reads more input into the window. Everything from the cursor onwards is kept, and moved to the start of the
+     * window to make room.
+     * @return False if the input is exhausted.
+     */
+    private boolean fill() {
+        if (source == null) return false;
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            limit -= pos;
+            windowOffset += pos;
+            pos = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        final int read;
+        try {
+            read = source.read(buffer, limit, buffer.length - limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (read < 0) {
+            source = null;
+            return false;
+        }
+        if (read == 0) {
+            starved = true;
+            return false;
+        }
+        limit += read;
+        if (windowOffset + limit > maxDocumentLength) throw limitExceeded("Document", maxDocumentLength);
+        return true;
+    }
+
+    private InvalidSyntaxException limitExceeded(String what, long max) {
+        return new InvalidSyntaxException(what + " is longer than the limit of " + max + " chars", row, col);
+    }
+
+    private void found(Token.Type type, int length) {
+        nextType = type;
+        nextLength = length;
+    }
+
+    private boolean matchesLiteral(String literal) {
+        val length = literal.length();
+        for (int i = 1; i < length; i++) {
+            if (peek(i) != literal.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Mirrors {@code -?(?:0|[1-9][0-9]*)} optionally followed by either a fraction or an exponent, but never both,
+     * exactly like the Float and Int patterns in {@link Token.Type}.
+     */
+    private boolean scanNumber() {
+        int i = 0;
+        if (peek(i) == '-') i++;
+        if (!isDigit(peek(i))) return false;
+        if (peek(i++) != '0') {
+            i = digits(i);
+        }
+        val intEnd = i;
+        if (peek(i) == '.' && isDigit(peek(i + 1))) {
+            i = digits(i + 2);
+            number(Token.Type.Float, i);
+            return true;
+        }
+        if (peek(i) == 'e' || peek(i) == 'E') {
+            i++;
+            if (peek(i) == '+' || peek(i) == '-') i++;
+            if (isDigit(peek(i))) {
+                if (peek(i++) != '0') {
+                    i = digits(i);
                 }
+                number(Token.Type.Float, i);
+                return true;
+            }
+        }
+        number(Token.Type.Int, intEnd);
+        return true;
+    }
+
+    /**
+     * @return The end of the run of digits starting at the given offset from the cursor.
+     */
+    private int digits(int i) {
+        while (isDigit(peek(i))) {
+            if (++i > maxNumberLength) throw limitExceeded("Number", maxNumberLength);
+        }
+        return i;
+    }
+
+    private void number(Token.Type type, int length) {
+        if (length > maxNumberLength) throw limitExceeded("Number", maxNumberLength);
+        found(type, length);
+    }
+
+    /**
+     * @return The length of the string literal at the cursor, or -1 if there is none.
+     */
+    private int scanString() {
+        boolean escapedQuote;
+        int i;
+        if (stringResume > 0) {
+            i = stringResume;
+            escapedQuote = stringResumeEscapedQuote;
+            stringResume = 0;
+        } else {
+            i = 1;
+            escapedQuote = false;
+            nextEscaped = false;
+            nextBadEscape = false;
+        }
+        int c;
+        while ((c = peek(i)) >= 0) {
+            if (c == '"') return i + 1;
+            //i - 1 chars of content so far, with the one at i still to come
+            if (i > maxStringLength) throw limitExceeded("String", maxStringLength);
+            if (c == '\\') {
+                val escape = escapeLength(i);
+                //An escape sequence that is cut off is scanned again once the rest of it arrived
+                if (starved) break;
+                nextEscaped = true;
+                if (escape == 1) nextBadEscape = true;
+                if (escape == 2 && peek(i + 1) == '"') escapedQuote = true;
+                i += escape;
+            } else if (c >= 0x20 || c == '\r' || c == '\n') {
+                i++;
+            } else {
+                break;
             }
-            throw new IllegalArgumentException("Failed to parse JSON! Remaining: " + string);
         }
+        if (starved) {
+            stringResume = i;
+            stringResumeEscapedQuote = escapedQuote;
+            return -1;
+        }
+        //The greedy scan ran into a control character or the end of the input. The regex would now backtrack and
+        //reinterpret an escaped quote as a backslash followed by the closing quote, so let it decide in that rare case.
+        if (!escapedQuote) return -1;
+        nextBadEscape = true;
+        val matcher = Token.Type.String.regex.matcher(CharBuffer.wrap(buffer, pos, i));
+        return matcher.lookingAt() ? matcher.end() : -1;
+    }
+
+    /**
+     * @return The length of the escape sequence starting at the given backslash, or 1 if it's not a valid escape, in
+     * which case the backslash is a plain character.
+     */
+    private int escapeLength(int i) {
+        switch (peek(i + 1)) {
+            case '"':
+            case '\\':
+            case '/':
+            case 'b':
+            case 'f':
+            case 'n':
+            case 'r':
+            case 't':
+                return 2;
+            case 'u':
+                if (isHexDigit(peek(i + 2)) &&
+                    isHexDigit(peek(i + 3)) &&
+                    isHexDigit(peek(i + 4)) &&
+                    isHexDigit(peek(i + 5))) {
+                    return 6;
+                }
+                return 1;
+            default:
+                return 1;
+        }
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHexDigit(int c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
     }
 }
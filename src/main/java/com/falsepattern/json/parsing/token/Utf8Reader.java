@@ -0,0 +1,80 @@
+package com.falsepattern.json.parsing.token;
+
+import lombok.val;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Unsynchronized {@link Reader} that decodes UTF-8 straight out of a {@link ByteBuffer} (heap or direct) into the
+ * caller's buffer, so the {@link Tokenizer} only ever holds one window of decoded text. Malformed input is reported,
+ * not replaced.
+ */
+class Utf8Reader extends Reader {
+    protected ByteBuffer input;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private final CharBuffer pending = CharBuffer.allocate(2);
+
+    Utf8Reader(ByteBuffer input) {
+        this.input = input;
+        ((Buffer) pending).flip();
+    }
+
+    /**
+     * @return True if more bytes follow once the current input buffer is used up.
+     */
+    protected boolean hasMoreInput() {
+        return false;
+    }
+
+    /**
+     * Replaces the input buffer with the next one, which has to start at the first byte the decoder did not consume.
+     * That byte may be in the middle of a multibyte sequence.
+     * @return False if the next bytes are not available yet.
+     */
+    protected boolean nextInput() throws IOException {
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (pending.hasRemaining()) {
+            cbuf[off] = pending.get();
+            return 1;
+        }
+        if (len == 1) {
+            //A surrogate pair can't be split, so single char reads go through a small side buffer
+            ((Buffer) pending).clear();
+            decode(pending);
+            ((Buffer) pending).flip();
+            if (!pending.hasRemaining()) return hasMoreInput() ? 0 : -1;
+            cbuf[off] = pending.get();
+            return 1;
+        }
+        val out = CharBuffer.wrap(cbuf, off, len);
+        decode(out);
+        val read = out.position() - off;
+        if (read == 0) return hasMoreInput() ? 0 : -1;
+        return read;
+    }
+
+    private void decode(CharBuffer out) throws IOException {
+        val start = out.position();
+        while (true) {
+            val last = !hasMoreInput();
+            val result = decoder.decode(input, out, last);
+            if (result.isError()) result.throwException();
+            if (result.isOverflow() || last || out.position() != start || !nextInput()) return;
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,125 @@
+package com.falsepattern.json.node;
+
+import com.falsepattern.json.parsing.InvalidSyntaxException;
+import com.falsepattern.json.parsing.ParserOptions;
+import lombok.val;
+import lombok.var;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static com.falsepattern.json.node.ProjectionTest.repeat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimitsTest {
+    private static final ParserOptions SHORT_STRINGS = ParserOptions.DEFAULT.withMaxStringLength(10);
+
+    @Test
+    void deepNestingFailsCleanly() {
+        val deep = repeat('[', 100_000);
+        val e = assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse(deep));
+        assertTrue(e.getMessage().contains("1000"), e.getMessage());
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse(new StringReader(deep)));
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse(repeat('[', 1001) + repeat(']', 1001)));
+        assertEquals(1000, depth(JsonNode.parse(repeat('[', 1000) + repeat(']', 1000))));
+        assertEquals(5000, depth(JsonNode.parse(repeat('[', 5000) + repeat(']', 5000), ParserOptions.UNLIMITED)));
+    }
+
+    @Test
+    void overlongStringsFail() throws IOException {
+        val text = "[\"" + repeat('a', 101) + "\"]";
+        val options = ParserOptions.DEFAULT.withMaxStringLength(100);
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse(text, options));
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse(new StringReader(text), options));
+        assertEquals(101, JsonNode.parse(text, ParserOptions.DEFAULT.withMaxStringLength(101)).get(0).stringValue().length());
+    }
+
+    @Test
+    void overlongNumbersFail() throws IOException {
+        val number = "1" + repeat('0', 1000);
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse(number));
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse("[0." + repeat('5', 1000) + "]"));
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse(new StringReader(number)));
+        assertEquals(JsonNode.parse(number, ParserOptions.UNLIMITED), JsonNode.parse(new StringReader(number), ParserOptions.UNLIMITED));
+        assertEquals(1000, JsonNode.parse(number.substring(0, 1000)).toString().length());
+    }
+
+    @Test
+    void overlongDocumentsFail() throws IOException {
+        val text = "{\"a\":[1,2,3],\"b\":\"text\"}";
+        val options = ParserOptions.DEFAULT.withMaxDocumentLength(text.length() - 1);
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse(text, options));
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse(new StringReader(text), options));
+        assertEquals(JsonNode.parse(text), JsonNode.parse(text, ParserOptions.DEFAULT.withMaxDocumentLength(text.length())));
+    }
+
+    private static int depth(JsonNode node) {
+        int depth = 1;
+        while (node.size() > 0) {
+            node = node.get(0);
+            depth++;
+        }
+        return depth;
+    }
+
+    @Test
+    void lazyValuesKeepLimits() {
+        val text = "{\"a\":[[\"" + repeat('a', 100) + "\"]],\"b\":1}";
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parseLazy(text, SHORT_STRINGS));
+        val node = JsonNode.parseLazy(text, ParserOptions.DEFAULT.withMaxNumberLength(1));
+        assertEquals(1, node.get("b").intValue());
+        assertEquals(100, node.get("a").get(0).get(0).stringValue().length());
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parseLazy("[[12]]", ParserOptions.DEFAULT.withMaxNumberLength(1)));
+        assertEquals(100, JsonNode.parseLazy("[[\"" + repeat('a', 100) + "\"]]").get(0).get(0).stringValue().length());
+    }
+
+    @Test
+    void lazyNestingKeepsTheDepthLimit() {
+        val deep = repeat('[', 200_000);
+        val e = assertThrows(InvalidSyntaxException.class, () -> JsonNode.parseLazy(deep));
+        assertEquals(assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse(deep)).getMessage(), e.getMessage());
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parseLazy(repeat('[', 1001) + repeat(']', 1001)));
+        var node = JsonNode.parseLazy(repeat('[', 1000) + repeat(']', 1000));
+        for (int i = 1; i < 1000; i++) node = node.get(0);
+        assertEquals(0, node.size());
+        val shallow = ParserOptions.DEFAULT.withMaxDepth(3);
+        assertEquals(1, JsonNode.parseLazy("{\"a\":[[1]]}", shallow).get("a").get(0).get(0).intValue());
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parseLazy("{\"a\":[[[1]]]}", shallow));
+    }
+
+    @Test
+    void parallelElementsKeepLimits() {
+        val text = "[1,[\"" + repeat('a', 100) + "\"],3]";
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parseParallel(text, SHORT_STRINGS));
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parseParallel("[[[1]]]", ParserOptions.DEFAULT.withMaxDepth(2)));
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parseParallel("[[1]]", ParserOptions.DEFAULT.withMaxDepth(1)));
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parseParallel(text, ParserOptions.DEFAULT.withMaxDocumentLength(20)));
+        assertEquals(JsonNode.parse("[[[1]]]"), JsonNode.parseParallel("[[[1]]]", ParserOptions.DEFAULT.withMaxDepth(3)));
+        assertEquals(JsonNode.parse(text), JsonNode.parseParallel(text, ParserOptions.DEFAULT));
+    }
+
+    @Test
+    void multipleDocumentsKeepLimits() {
+        val text = "{\"a\":1}\n[\"" + repeat('a', 100) + "\"]\n3";
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parseAll(new StringReader(text), SHORT_STRINGS).collect(Collectors.toList()));
+        assertEquals(3, JsonNode.parseAll(new StringReader(text)).count());
+    }
+
+    @Test
+    void multipleDocumentsReportOverlongValuesAfterEarlierOnes() {
+        val options = ParserOptions.DEFAULT.withMaxDocumentLength(50);
+        val reader = new MultiDocumentReader(new StringReader("1 2\n[" + repeat(' ', 1000) + "]\n4"), ForkJoinPool.commonPool(), 4, 2, options);
+        assertEquals(1, reader.next().intValue());
+        assertEquals(2, reader.next().intValue());
+        //Lines and columns count from 0, like in the errors of the tokenizer
+        val e = assertThrows(InvalidSyntaxException.class, reader::next);
+        assertTrue(e.getMessage().startsWith("Invalid syntax at line: 1, column: 50."), e.getMessage());
+        val first = new MultiDocumentReader(new StringReader("[" + repeat(' ', 1000) + "]"), ForkJoinPool.commonPool(), 4, 2, options);
+        assertTrue(assertThrows(InvalidSyntaxException.class, first::next).getMessage().startsWith("Invalid syntax at line: 0,"));
+    }
+}
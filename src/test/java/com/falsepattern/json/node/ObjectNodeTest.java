@@ -0,0 +1,76 @@
+package com.falsepattern.json.node;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ObjectNodeTest {
+    @Test
+    void newObjectsSortKeys() {
+        val node = new ObjectNode();
+        node.set("b", IntNode.of(1));
+        node.set("c", IntNode.of(2));
+        node.set("a", IntNode.of(3));
+        assertEquals("{\"a\":3,\"b\":1,\"c\":2}", node.toString());
+        assertEquals(Arrays.asList("b", "c", "a"), new ArrayList<>(node.getJavaMap().keySet()));
+        //The cached order has to follow modifications
+        node.set("0", IntNode.of(4));
+        node.remove("b");
+        assertEquals("{\"0\":4,\"a\":3,\"c\":2}", node.toString());
+    }
+
+    @Test
+    void parsedObjectsKeepSourceOrder() {
+        val text = "{\"b\":1,\"c\":{\"z\":1,\"y\":2},\"a\":3}";
+        assertEquals(text, JsonNode.parse(text).toString());
+        assertEquals(text, JsonNode.parseWithAST(text).toString());
+        assertEquals(text, JsonNode.parseLazy(text).toString());
+        val node = JsonNode.parse(text);
+        node.set("b", IntNode.of(5));
+        node.set("0", IntNode.of(6));
+        assertEquals("{\"b\":5,\"c\":{\"z\":1,\"y\":2},\"a\":3,\"0\":6}", node.toString());
+        assertEquals(node.toString(), node.clone().toString());
+    }
+
+    @Test
+    void sortingRuleChangesOrder() {
+        val node = (ObjectNode) JsonNode.parse("{\"b\":1,\"c\":2,\"a\":3}");
+        node.setSortingRule(Comparator.reverseOrder());
+        assertEquals("{\"c\":2,\"b\":1,\"a\":3}", node.toString());
+        assertEquals("{\"c\":2,\"b\":1,\"a\":3}", node.clone().toString());
+        node.keepInsertionOrder();
+        assertEquals("{\"b\":1,\"c\":2,\"a\":3}", node.toString());
+    }
+
+    @Test
+    void lazyObjectsKeepSourceText() {
+        val text = "{ \"b\" : 1 , \"a\" : [ 2 ] }";
+        val node = (ObjectNode) JsonNode.parseLazy(text);
+        //Already in insertion order, so the source text stays valid
+        node.keepInsertionOrder();
+        assertEquals(text, node.toString());
+        assertEquals(1, node.get("b").intValue());
+        assertEquals(text, node.toString());
+        node.setSortingRule(Comparator.naturalOrder());
+        //Only the reordered object is rewritten, the untouched list keeps its source text
+        assertEquals("{\"a\":[ 2 ],\"b\":1}", node.toString());
+    }
+
+    @Test
+    void lazyModificationsRewriteTheirParents() {
+        val text = "{ \"a\" : { \"b\" : [ 1 ] } , \"c\" : [ 2 ] }";
+        val node = JsonNode.parseLazy(text);
+        val list = node.get("a").get("b");
+        assertEquals(text, node.toString());
+        list.add(IntNode.of(3));
+        //Every container the list is nested in is rewritten, the untouched sibling keeps its source text
+        assertEquals("{\"a\":{\"b\":[1,3]},\"c\":[ 2 ]}", node.toString());
+        assertEquals(node.toString(), node.clone().toString());
+        assertEquals("[1,3]", list.toString());
+    }
+}
@@ -0,0 +1,41 @@
+package com.falsepattern.json.node;
+
+import com.falsepattern.json.parsing.InvalidSyntaxException;
+import com.falsepattern.json.parsing.ParserOptions;
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PathExtractorTest {
+    @Test
+    void extractsPaths() {
+        val extractor = PathExtractor.of("$.header.type", "$.items[1].id", "$['key with spaces']", "missing");
+        val result = extractor.extract("{\"header\":{\"type\":\"t\"},\"items\":[{\"id\":1},{\"id\":2}],\"key with spaces\":[true]}");
+        assertEquals("t", result.getString(0));
+        assertEquals(2, result.getLong(1));
+        assertEquals(JsonNode.parse("[true]"), result.get(2));
+        assertFalse(result.isPresent(3));
+    }
+
+    @Test
+    void rejectsMismatchedBracketsInSkippedValues() {
+        val extractor = PathExtractor.of("$.id");
+        assertThrows(InvalidSyntaxException.class, () -> extractor.extract("{\"x\":{\"y\":[}],\"id\":2}"));
+        assertThrows(InvalidSyntaxException.class, () -> extractor.extract("{\"x\":[1},\"id\":2}"));
+        assertThrows(InvalidSyntaxException.class, () -> PathExtractor.of("$[1]").extract("[[1}, 2]"));
+    }
+
+    @Test
+    void keepsTokenizerLimits() {
+        val text = "{\"a\":{\"b\":\"" + ProjectionTest.repeat('a', 5000) + "\"}}";
+        val tokenizer = new Tokenizer(text);
+        tokenizer.setLimits(ParserOptions.DEFAULT.withMaxStringLength(10));
+        assertThrows(InvalidSyntaxException.class, () -> PathExtractor.of("$.a").extract(tokenizer));
+        assertThrows(InvalidSyntaxException.class, () -> PathExtractor.of("$.c").extract(text, ParserOptions.DEFAULT.withMaxStringLength(10)));
+        assertEquals(5000, PathExtractor.of("$.a").extract(text).get(0).get("b").stringValue().length());
+    }
+}
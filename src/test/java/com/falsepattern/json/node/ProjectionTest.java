@@ -0,0 +1,57 @@
+package com.falsepattern.json.node;
+
+import com.falsepattern.json.parsing.InvalidSyntaxException;
+import com.falsepattern.json.parsing.ParserOptions;
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProjectionTest {
+    @Test
+    void keepsSelectedPaths() {
+        val projection = Projection.of("id", "payload.user.name");
+        val node = projection.parse(new Tokenizer("{\"x\":[1,{\"y\":2}],\"id\":7,\"payload\":{\"user\":{\"name\":\"n\",\"age\":3},\"other\":{}}}"));
+        assertEquals(JsonNode.parse("{\"id\":7,\"payload\":{\"user\":{\"name\":\"n\"}}}"), node);
+    }
+
+    @Test
+    void rejectsMismatchedBracketsInSkippedValues() {
+        val projection = Projection.of("id");
+        assertThrows(InvalidSyntaxException.class, () -> projection.parse(new Tokenizer("{\"x\":[1},\"id\":2}")));
+        assertThrows(InvalidSyntaxException.class, () -> projection.parse(new Tokenizer("{\"x\":{\"y\":[}],\"id\":2}")));
+        assertThrows(InvalidSyntaxException.class, () -> projection.parse(new Tokenizer("[{\"x\":[[]}],\"id\":2}]")));
+    }
+
+    @Test
+    void keepsTokenizerLimits() {
+        val text = "{\"id\":\"" + repeat('a', 5000) + "\"}";
+        val tokenizer = new Tokenizer(text);
+        tokenizer.setLimits(ParserOptions.DEFAULT.withMaxStringLength(10));
+        assertThrows(InvalidSyntaxException.class, () -> Projection.of("id").parse(tokenizer));
+        assertThrows(InvalidSyntaxException.class, () -> Projection.of("x").parse(new Tokenizer(text), ParserOptions.DEFAULT.withMaxStringLength(10)));
+        assertEquals(5000, Projection.of("id").parse(new Tokenizer(text)).get("id").stringValue().length());
+    }
+
+    @Test
+    void rejectsDeepNesting() {
+        val deep = repeat('[', 200_000);
+        val e = assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse(deep, Projection.of("id")));
+        assertEquals(assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse(deep)).getMessage(), e.getMessage());
+        //Skipped and fully parsed values count towards the limit as well
+        val options = ParserOptions.DEFAULT.withMaxDepth(3);
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse("[{\"x\":[[1]]}]", Projection.of("id"), options));
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse("[{\"id\":[[1]]}]", Projection.of("id"), options));
+        assertThrows(InvalidSyntaxException.class, () -> JsonNode.parse("[[{\"id\":[]}]]", Projection.of("id"), options));
+        assertEquals(JsonNode.parse("[{\"id\":[1]}]"), JsonNode.parse("[{\"x\":[1],\"id\":[1]}]", Projection.of("id"), options));
+        assertEquals(JsonNode.parse("[[{\"id\":1}]]"), JsonNode.parse("[[{\"id\":1}]]", Projection.of("id"), options));
+    }
+
+    static String repeat(char c, int count) {
+        val builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) builder.append(c);
+        return builder.toString();
+    }
+}
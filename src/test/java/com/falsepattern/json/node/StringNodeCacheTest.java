@@ -0,0 +1,82 @@
+package com.falsepattern.json.node;
+
+import com.falsepattern.json.parsing.ParserOptions;
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StringNodeCacheTest {
+    @Test
+    void sharesShortValues() {
+        val cache = new StringNodeCache();
+        val text = "[\"ok\",\"ok\",{\"status\":\"ok\",\"long\":\"" + repeat('x', StringNodeCache.MAX_LENGTH + 1) + "\"},\"a\\nb\",\"a\\nb\"]";
+        val node = JsonNode.parse(new Tokenizer(text), ParserOptions.DEFAULT, cache);
+        assertEquals(JsonNode.parse(text), node);
+        assertSame(node.get(0), node.get(1));
+        assertSame(node.get(0), node.get(2).get("status"));
+        //Escaped values stay lazy, and are never shared
+        assertNotSame(node.get(3), node.get(4));
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+
+        val bytes = text.getBytes(StandardCharsets.UTF_8);
+        val indexed = JsonNode.parseIndexed(bytes, 0, bytes.length, ParserOptions.DEFAULT, cache);
+        assertEquals(node, indexed);
+        assertSame(node.get(0), indexed.get(0));
+    }
+
+    @Test
+    void concurrentLookups() throws Exception {
+        //Few slots for many values, so the threads keep replacing each other's entries
+        val cache = new StringNodeCache(8);
+        val values = new String[64];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = "value" + i;
+        }
+        val threads = 8;
+        val lookups = 200_000;
+        val pool = Executors.newFixedThreadPool(threads);
+        try {
+            val start = new CountDownLatch(1);
+            val results = new ArrayList<Future<?>>();
+            for (int t = 0; t < threads; t++) {
+                val seed = t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < lookups; i++) {
+                        val value = values[(i * 31 + seed * 7) % values.length];
+                        val node = cache.of(value);
+                        assertEquals(value, node.stringValue());
+                        assertEquals("\"" + value + "\"", node.toString());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (val result: results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals((long) threads * lookups, cache.hits() + cache.misses());
+    }
+
+    private static String repeat(char c, int count) {
+        val builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.falsepattern.json.parsing;
+
+import com.falsepattern.json.node.JsonNode;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+
+class IncrementalParserTest {
+    private static final String TEXT = "{\"k\\u00e9y\":[1.5,2e-3,-20,true,null],\"s\":\"a\\\"b\\né€😀\"} [] 12345 \"x\"\n{}";
+
+    @Test
+    void splitsAnywhere() {
+        val bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+        val expected = Arrays.asList(
+                JsonNode.parse("{\"k\\u00e9y\":[1.5,2e-3,-20,true,null],\"s\":\"a\\\"b\\né€😀\"}"),
+                JsonNode.parse("[]"), JsonNode.parse("12345"), JsonNode.parse("\"x\""), JsonNode.parse("{}"));
+        for (int split = 0; split <= bytes.length; split++) {
+            val values = new ArrayList<JsonNode>();
+            val parser = JsonNode.incrementalParser(values::add);
+            parser.feed(bytes, 0, split);
+            parser.feed(bytes, split, bytes.length - split);
+            parser.end();
+            assertEquals(expected, values, "Split at " + split);
+        }
+        val values = new ArrayList<JsonNode>();
+        val parser = JsonNode.incrementalParser(values::add);
+        for (int i = 0; i < bytes.length; i++) {
+            parser.feed(bytes, i, 1);
+        }
+        parser.end();
+        assertEquals(expected, values);
+    }
+
+    @Test
+    void resumesLongStrings() {
+        val pieces = new String[]{"plain ", "\\\"", "\\u00e9", "\\n", "é€😀", "\\q", "\\\\"};
+        val text = new StringBuilder("[\"");
+        for (int i = 0; text.length() < 1 << 16; i++) text.append(pieces[i % pieces.length]);
+        text.append("\"]");
+        val bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        val expected = JsonNode.parse(text.toString());
+        //Odd chunk sizes cut escape sequences and multibyte characters at every possible point
+        for (val chunk: new int[]{1, 3, 7, 1024}) {
+            assertEquals(Arrays.asList(expected), feedInChunks(bytes, chunk), "Chunks of " + chunk);
+        }
+    }
+
+    @Test
+    void feedsLargeStringsInLinearTime() {
+        val text = new StringBuilder("{\"s\":\"");
+        for (int i = 0; i < 4 << 20; i++) text.append(i % 97 == 0 ? "\\n" : "x");
+        text.append("\"}");
+        val bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        //Rescanning the string from its start on every chunk took over half a minute
+        val values = assertTimeout(Duration.ofSeconds(10), () -> feedInChunks(bytes, 1024));
+        assertEquals(Arrays.asList(JsonNode.parse(text.toString())), values);
+    }
+
+    private static List<JsonNode> feedInChunks(byte[] bytes, int chunk) {
+        val values = new ArrayList<JsonNode>();
+        val parser = JsonNode.incrementalParser(values::add);
+        for (int i = 0; i < bytes.length; i += chunk) {
+            parser.feed(bytes, i, Math.min(chunk, bytes.length - i));
+        }
+        parser.end();
+        return values;
+    }
+
+    @Test
+    void reportsValuesAsSoonAsTheyEnd() {
+        val values = new ArrayList<JsonNode>();
+        val parser = JsonNode.incrementalParser(values::add);
+        feed(parser, "[1,2");
+        assertEquals(0, values.size());
+        feed(parser, "] 12");
+        assertEquals(1, values.size());
+        //The number might still go on
+        feed(parser, "3");
+        assertEquals(1, values.size());
+        parser.end();
+        assertEquals(Arrays.asList(JsonNode.parse("[1,2]"), JsonNode.parse("123")), values);
+    }
+
+    @Test
+    void rejectsTruncatedInput() {
+        val values = new ArrayList<JsonNode>();
+        val parser = JsonNode.incrementalParser(values::add);
+        feed(parser, "{\"a\":[1,");
+        assertThrows(InvalidSyntaxException.class, parser::end);
+        assertThrows(InvalidSyntaxException.class, () -> feed(JsonNode.incrementalParser(values::add), "[1}"));
+    }
+
+    private static void feed(IncrementalParser parser, String text) {
+        val bytes = text.getBytes(StandardCharsets.UTF_8);
+        parser.feed(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,130 @@
+package com.falsepattern.json.parsing;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the fast paths of {@link NumberUtil} against {@link Double#parseDouble(String)} and {@link BigDecimal}.
+ */
+class NumberUtilTest {
+    private static final String[] CORPUS = {
+            "0", "-0", "0.0", "0e0", "1", "-1", "0.1", "0.3", "1E5", "1e+5", "1e-5", "123.456e7",
+            "9007199254740992", "9007199254740993", "18446744073709551615", "18446744073709551616",
+            "123456789012345678901234567890", "0.000000000000000000000000000001234567890123456789",
+            "1.7976931348623157e308", "1.7976931348623158e308", "1.7976931348623159e308", "1e309", "1e400", "-1e400",
+            "2.2250738585072014e-308", "2.2250738585072011e-308", "4.9e-324", "2.4703282292062327e-324",
+            "2.4703282292062328e-324", "1e-400", "7.2057594037927933e16", "9.109e-31", "6.02214076e23",
+            //Halfway between two doubles, rounds to even
+            "9007199254740993.0", "9007199254740995", "1.00000000000000011102230246251565404236316680908203125",
+            "1.00000000000000011102230246251565404236316680908203124",
+            "1.00000000000000011102230246251565404236316680908203126",
+    };
+
+    @Test
+    void parsesLikeTheJdk() {
+        for (val text: CORPUS) {
+            assertParses(text);
+        }
+        val random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            val digits = new StringBuilder();
+            if (random.nextBoolean()) digits.append('-');
+            val length = 1 + random.nextInt(25);
+            for (int j = 0; j < length; j++) {
+                digits.append((char) ('0' + random.nextInt(10)));
+                if (j == 0 && random.nextInt(4) == 0) digits.append('.');
+            }
+            if (random.nextBoolean()) digits.append('e').append(random.nextInt(700) - 350);
+            assertParses(digits.toString());
+            assertParses(Double.toString(Double.longBitsToDouble(random.nextLong())));
+        }
+    }
+
+    @Test
+    void fallsBackToTheJdkOutsideOfJsonSyntax() {
+        for (val text: new String[]{"1.", ".5", "+1", "1e0000000001", "1.5f", "0x1p3", "Infinity"}) {
+            assertParses(text);
+        }
+        for (val text: new String[]{"", "-", "1e", "1e+", "abc", "1.5x"}) {
+            assertThrows(NumberFormatException.class, () -> NumberUtil.parseDouble(text), text);
+        }
+    }
+
+    @Test
+    void printsShortestRoundTrip() {
+        assertEquals("0.0", NumberUtil.toString(0.0));
+        assertEquals("1.0", NumberUtil.toString(1.0));
+        assertEquals("-1.5", NumberUtil.toString(-1.5));
+        assertEquals("0.1", NumberUtil.toString(0.1));
+        assertEquals("100.0", NumberUtil.toString(100.0));
+        assertEquals("1e23", NumberUtil.toString(1e23));
+        assertEquals("15e-8", NumberUtil.toString(1.5e-7));
+        //The JDK keeps two digits for these, but one is enough to round trip
+        assertEquals("5e-324", NumberUtil.toString(Double.MIN_VALUE));
+        assertEquals("1e-323", NumberUtil.toString(1.0E-323));
+        assertEquals("5e-323", NumberUtil.toString(Double.longBitsToDouble(10)));
+        assertEquals("17976931348623157e292", NumberUtil.toString(Double.MAX_VALUE));
+        val random = new Random(2);
+        for (int i = 0; i < 100_000; i++) {
+            val value = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(value) || Double.isInfinite(value)) continue;
+            assertPrints(value);
+            assertPrints((double) random.nextInt());
+            assertPrints(random.nextInt(1_000_000) / 1000.0);
+        }
+    }
+
+    @Test
+    void printsShortestSubnormals() {
+        for (long bits = 1; bits < 10_000; bits++) {
+            assertShortest(Double.longBitsToDouble(bits));
+        }
+        val random = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            assertShortest(Double.longBitsToDouble(random.nextLong() & (1L << 52) - 1));
+        }
+    }
+
+    @Test
+    void rejectsNonFiniteValues() {
+        assertThrows(IllegalArgumentException.class, () -> NumberUtil.toString(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> NumberUtil.toString(Double.POSITIVE_INFINITY));
+        assertThrows(IllegalArgumentException.class, () -> NumberUtil.toString(Double.NEGATIVE_INFINITY));
+    }
+
+    private static void assertShortest(double value) {
+        val text = NumberUtil.toString(value);
+        assertEquals(value, Double.parseDouble(text), text);
+        val digits = new BigDecimal(text).stripTrailingZeros().precision();
+        if (digits == 1) return;
+        //The closest decimals with one digit less are outside of the rounding interval, so all shorter ones are too
+        val exact = new BigDecimal(value);
+        for (val mode: new RoundingMode[]{RoundingMode.FLOOR, RoundingMode.CEILING}) {
+            val shorter = exact.round(new MathContext(digits - 1, mode));
+            assertTrue(Double.parseDouble(shorter.toString()) != value, text + " could be " + shorter);
+        }
+    }
+
+    private static void assertParses(String text) {
+        assertEquals(Double.doubleToRawLongBits(Double.parseDouble(text)), Double.doubleToRawLongBits(NumberUtil.parseDouble(text)), text);
+    }
+
+    private static void assertPrints(double value) {
+        val text = NumberUtil.toString(value);
+        //Negative zero has no sign in json output, like BigDecimal.valueOf(-0.0)
+        assertEquals(value == 0 ? 0.0 : value, Double.parseDouble(text), text);
+        assertEquals(value == 0 ? 0.0 : value, NumberUtil.parseDouble(text), text);
+        //Never more digits than the JDK needs
+        val shortest = new BigDecimal(Double.toString(value)).stripTrailingZeros().precision();
+        assertTrue(new BigDecimal(text).stripTrailingZeros().precision() <= shortest, text);
+    }
+}
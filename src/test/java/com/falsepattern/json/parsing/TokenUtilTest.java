@@ -0,0 +1,65 @@
+package com.falsepattern.json.parsing;
+
+import com.falsepattern.json.parsing.token.Token;
+import com.falsepattern.json.parsing.token.Tokenizer;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenUtilTest {
+    @Test
+    void skipsWholeValues() {
+        val tokenizer = new Tokenizer("{\"a\":[1,{\"b\":[]}],\"c\":{}} 5 \"s\" [[[]]] null");
+        TokenUtil.skipValue(tokenizer);
+        assertEquals(Token.Type.Int, tokenizer.peekNextType());
+        TokenUtil.skipValue(tokenizer);
+        TokenUtil.skipValue(tokenizer);
+        TokenUtil.skipValue(tokenizer);
+        assertEquals(Token.Type.Null, tokenizer.peekNextType());
+        TokenUtil.skipValue(tokenizer);
+        assertNull(tokenizer.peekNextType());
+    }
+
+    @Test
+    void skipsDeepValues() {
+        val depth = 1000;
+        val text = new StringBuilder();
+        for (int i = 0; i < depth; i++) text.append(i % 3 == 0 ? "{\"k\":" : "[");
+        for (int i = depth - 1; i >= 0; i--) text.append(i % 3 == 0 ? "}" : "]");
+        val tokenizer = new Tokenizer(text + ",");
+        TokenUtil.skipValue(tokenizer);
+        assertEquals(Token.Type.Comma, tokenizer.peekNextType());
+    }
+
+    @Test
+    void enforcesDepthLimit() {
+        TokenUtil.skipValue(new Tokenizer("[[1]]"), 1, 3);
+        TokenUtil.skipValue(new Tokenizer("7"), 3, 3);
+        val e = assertThrows(InvalidSyntaxException.class, () -> TokenUtil.skipValue(new Tokenizer("[{\"a\":[]}]"), 1, 3));
+        assertEquals("Nesting is deeper than the limit of 3", e.getMessage().substring(e.getMessage().indexOf('\n') + 1));
+    }
+
+    @Test
+    void rejectsMismatchedBrackets() {
+        assertThrows(InvalidSyntaxException.class, () -> TokenUtil.skipValue(new Tokenizer("[1}")));
+        assertThrows(InvalidSyntaxException.class, () -> TokenUtil.skipValue(new Tokenizer("{\"a\":1]")));
+        assertThrows(InvalidSyntaxException.class, () -> TokenUtil.skipValue(new Tokenizer("{\"y\":[}]")));
+        assertThrows(InvalidSyntaxException.class, () -> TokenUtil.skipValue(new Tokenizer("[[[[]]]}")));
+        //Mismatches past the first 64 levels use the overflow words of the bracket stack
+        val deep = new StringBuilder();
+        for (int i = 0; i < 100; i++) deep.append(i == 70 ? "{" : "[");
+        for (int i = 99; i >= 0; i--) deep.append("]");
+        assertThrows(InvalidSyntaxException.class, () -> TokenUtil.skipValue(new Tokenizer(deep)));
+    }
+
+    @Test
+    void rejectsUnclosedValues() {
+        assertThrows(InvalidSyntaxException.class, () -> TokenUtil.skipValue(new Tokenizer("[1,2")));
+        assertThrows(InvalidSyntaxException.class, () -> TokenUtil.skipValue(new Tokenizer("{\"a\":[")));
+        assertThrows(InvalidSyntaxException.class, () -> TokenUtil.skipValue(new Tokenizer("]")));
+        assertThrows(InvalidSyntaxException.class, () -> TokenUtil.skipValue(new Tokenizer("")));
+    }
+}
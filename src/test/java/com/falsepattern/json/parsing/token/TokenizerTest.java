@@ -0,0 +1,121 @@
+package com.falsepattern.json.parsing.token;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs {@link Tokenizer} and the reference {@link RegexTokenizer} over the same inputs, which must produce the same
+ * tokens at the same positions, and fail on the same inputs.
+ */
+class TokenizerTest {
+    private static final String[] CORPUS = {
+            "",
+            "   \t ",
+            "{}",
+            "[]",
+            "{\"a\": [1, -2, 3.5, -0.25, 1e10, 2E-3, 4e+7, 0, -0], \"b\": {\"c\": null}}",
+            "true false null",
+            "[true,false,null,truefalse]",
+            "\"plain\" \"with \\\"escapes\\\" \\\\ \\/ \\b \\f \\n \\r \\t\" \"\\u00e9\\uD83D\\uDE00\"",
+            "\"unicode é 日本 😀\"",
+            "\"multi\nline\r\nstring\rhere\"",
+            "1\n2\r\n3\r4\n\n5",
+            "\t[\r\n\t\t1,\r\n\t\t2\r\n\t]",
+            "1.5e3",
+            "0123",
+            "01.5",
+            "-",
+            "1.",
+            "1e",
+            ".5",
+            "\"unterminated",
+            "\"unterminated \\\" with escaped quote",
+            "\"bad escape \\x\"",
+            "\"bad unicode \\u12g4\"",
+            "\"control \u0001 char\"",
+            "nul",
+            "tru",
+            "{\"a\" : 1 , \"b\" : [ ] }",
+            "@",
+            "[1, 2, #]",
+    };
+
+    private static final String[] FRAGMENTS = {
+            "{", "}", "[", "]", ",", ":", " ", "\t", "\n", "\r\n", "\r", "true", "false", "null",
+            "0", "-1", "42", "3.14", "-0.5", "1e5", "2E-7", "6e+2", "007", "1.", "-", "e",
+            "\"\"", "\"a\"", "\"\\n\"", "\"\\u0041\"", "\"é\"", "\"\\\"\"", "\"", "\\", "x",
+    };
+
+    @Test
+    void corpus() {
+        for (val input: CORPUS) {
+            compare(input);
+        }
+    }
+
+    @Test
+    void randomFragments() {
+        val random = new Random(1);
+        for (int i = 0; i < 20000; i++) {
+            val input = new StringBuilder();
+            val count = random.nextInt(12);
+            for (int j = 0; j < count; j++) {
+                input.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            compare(input.toString());
+        }
+    }
+
+    private static void compare(String input) {
+        val expected = new ArrayList<String>();
+        val expectedError = tokenize(new RegexTokenizer(input), expected);
+        val actual = new ArrayList<String>();
+        val actualError = tokenize(new Tokenizer(input), actual);
+        assertEquals(expected, actual, () -> "Tokens differ for: " + input);
+        assertEquals(expectedError, actualError, () -> "Errors differ for: " + input);
+        //Refilling a tiny window must not change the tokens either
+        val windowed = new ArrayList<String>();
+        val windowedError = tokenize(new Tokenizer(new StringReader(input), 3), windowed);
+        assertEquals(expected, windowed, () -> "Tokens differ with a small buffer for: " + input);
+        assertEquals(expectedError == null, windowedError == null, () -> "Errors differ with a small buffer for: " + input);
+    }
+
+    /**
+     * @return The message of the error the tokenizer failed with, or null.
+     */
+    private static String tokenize(RegexTokenizer tokenizer, List<String> tokens) {
+        try {
+            while (tokenizer.hasNextToken()) {
+                tokens.add(describe(tokenizer.popNextToken()));
+            }
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String tokenize(Tokenizer tokenizer, List<String> tokens) {
+        try {
+            while (tokenizer.hasNextToken()) {
+                tokens.add(describe(tokenizer.popNextToken()));
+            }
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        } catch (RuntimeException e) {
+            return fail("Unexpected exception", e);
+        }
+    }
+
+    private static String describe(Token token) {
+        return token.tokenType + " " + token.text + " @" + token.line + ":" + token.col;
+    }
+}